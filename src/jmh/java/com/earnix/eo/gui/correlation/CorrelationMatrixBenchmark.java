@@ -0,0 +1,238 @@
+package com.earnix.eo.gui.correlation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link CorrelationMatrixGrid} painting, layout, zoom and tooltips. Component is not displayed,
+ * grid is painted into off-screen image in headless mode.
+ * <br>
+ * Run with {@code mvn -P benchmark test-compile exec:exec}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Djava.awt.headless=true", "-Xmx2g" })
+public class CorrelationMatrixBenchmark
+{
+	/**
+	 * Size of correlation matrix component.
+	 */
+	private static final Dimension SIZE = new Dimension(1600, 1200);
+
+	/**
+	 * Amount of zoom origins visited by {@link #createZoomModels()}.
+	 */
+	private static final int ZOOM_STEPS = 64;
+
+	/**
+	 * Amount of data rows.
+	 */
+	@Param({ "20", "500", "5000", "20000" })
+	int length;
+
+	/**
+	 * Whether cells are displayed as rectangles ({@code true}) or ellipses ({@code false}) regardless of their size.
+	 * Cells smaller than half a device pixel are aggregated and rasterized in both modes, so with 5000 and 20000 rows
+	 * both modes measure rendering of aggregated values.
+	 */
+	@Param({ "true", "false" })
+	boolean compact;
+
+	private CorrelationMatrix matrix;
+	private CorrelationMatrixGrid grid;
+	private BufferedImage image;
+	private Graphics2D graphics;
+	private CellIndex zoomCell;
+	private TitleMetrics titleMetrics;
+	private double cellSize;
+	private MouseEvent mouseEvent;
+	private MouseEvent[] movingMouseEvents;
+
+	@Setup(Level.Trial)
+	public void setUp()
+	{
+		List<RowType> types = new ArrayList<>(length);
+		List<String> titles = new ArrayList<>(length);
+		for (int i = 0; i < length; i++)
+		{
+			types.add(i % 5 == 0 ? RowType.NOMINAL : RowType.NUMERIC);
+			titles.add("Variable " + i + (i % 7 == 0 ? " with a rather long descriptive name" : ""));
+		}
+		matrix = new CorrelationMatrix(types, titles, new SyntheticCorrelations(length));
+		matrix.setBackground(Color.WHITE);
+		matrix.setCompactCellSize(compact ? Integer.MAX_VALUE : 0);
+		// measuring rendering itself, not painting of scaled preview
+		matrix.setBackgroundRendering(false);
+
+		// laying out component without displaying it
+		matrix.setSize(SIZE);
+		matrix.doLayout();
+		grid = matrix.grid;
+		grid.setSize(grid.getPreferredSize());
+
+		image = new BufferedImage(grid.getWidth(), grid.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		graphics = image.createGraphics();
+		graphics.setClip(0, 0, grid.getWidth(), grid.getHeight());
+		grid.paintComponent(graphics);
+
+		// zooming and hovering cell in the middle of lower triangle
+		zoomCell = new CellIndex(length / 4, length * 3 / 4);
+		titleMetrics = new TitleMetrics(matrix.titles, matrix.labelsFont, grid::getFontMetrics, (short) 64);
+		Cell cell = grid.createCell(zoomCell.i, zoomCell.j);
+		cellSize = cell.size;
+		int x = (int) (cell.x + cell.size / 2) + matrix.gridBorderWidth;
+		int y = (int) (cell.y + cell.size / 2) + matrix.gridBorderWidth;
+		mouseEvent = new MouseEvent(grid, MouseEvent.MOUSE_MOVED, 0, 0, x, y, 0, false);
+		int nextX = (int) (cell.x + cell.size * 3 / 2) + matrix.gridBorderWidth;
+		movingMouseEvents = new MouseEvent[] { mouseEvent,
+				new MouseEvent(grid, MouseEvent.MOUSE_MOVED, 0, 0, nextX, y, 0, false) };
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown()
+	{
+		graphics.dispose();
+		matrix.setRenderingParallelism(1);
+	}
+
+	/**
+	 * Full rendering of grid: cells, grid lines and titles.
+	 */
+	@Benchmark
+	public BufferedImage paint()
+	{
+		grid.invalidateCellsImage();
+		grid.paintComponent(graphics);
+		return image;
+	}
+
+	/**
+	 * Repainting of grid with valid cached cells image, for example after tooltip or highlight change.
+	 */
+	@Benchmark
+	public BufferedImage paintCached()
+	{
+		grid.paintComponent(graphics);
+		return image;
+	}
+
+	/**
+	 * Layout pass.
+	 */
+	@Benchmark
+	public Dimension preferredSize()
+	{
+		return grid.getPreferredSize();
+	}
+
+	/**
+	 * Creation of zoom model for the same cell, which is taken from cache of zoom models.
+	 */
+	@Benchmark
+	public Zoom createZoom()
+	{
+		return grid.createZoom(zoomCell);
+	}
+
+	/**
+	 * Creation of zoom models with empty cache, while zoom is dragged along the bottom row over {@link #ZOOM_STEPS}
+	 * origins, including labels measuring and abbreviation.
+	 */
+	@Benchmark
+	public Zoom createZoomModels()
+	{
+		int zoomLength = Math.min(matrix.getZoomLength(), length);
+		ZoomModels models = new ZoomModels(titleMetrics, matrix.labelsFont, grid::getFontMetrics, zoomLength, cellSize,
+				grid.cellsWidth, grid.cellsHeight);
+		Zoom zoom = null;
+		for (int i = 0; i < Math.min(ZOOM_STEPS, length - zoomLength + 1); i++)
+		{
+			zoom = models.get(i, length - zoomLength);
+		}
+		return zoom;
+	}
+
+	/**
+	 * Tooltip text of hovered cell, which is taken from cache.
+	 */
+	@Benchmark
+	public String toolTipText()
+	{
+		return grid.getToolTipText(mouseEvent);
+	}
+
+	/**
+	 * Tooltip text of cells, which are hovered in turn, so text is created for each of them.
+	 */
+	@Benchmark
+	public String toolTipTextMoving()
+	{
+		grid.getToolTipText(movingMouseEvents[0]);
+		return grid.getToolTipText(movingMouseEvents[1]);
+	}
+
+	/**
+	 * Correlations calculated on demand, so large matrices don't take memory.
+	 */
+	private static class SyntheticCorrelations implements CorrelationSource
+	{
+		private final int length;
+
+		SyntheticCorrelations(int length)
+		{
+			this.length = length;
+		}
+
+		@Override
+		public int length()
+		{
+			return length;
+		}
+
+		@Override
+		public double getCorrelation(int i, int j)
+		{
+			if (i == j)
+			{
+				return 1;
+			}
+
+			// symmetric pseudo-random value in [-1, 1)
+			long hash = (long) Math.min(i, j) * 0x9E3779B97F4A7C15L + Math.max(i, j);
+			hash ^= hash >>> 31;
+			hash *= 0xBF58476D1CE4E5B9L;
+			hash ^= hash >>> 29;
+			return (hash >>> 11) * 0x1.0p-52 - 1;
+		}
+
+		@Override
+		public double getCorrelationSqr(int i, int j)
+		{
+			double correlation = getCorrelation(i, j);
+			return correlation * correlation;
+		}
+	}
+}
@@ -0,0 +1,279 @@
+package com.earnix.eo.gui.correlation;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates ANOVA R² (<a href="https://en.wikipedia.org/wiki/Correlation_ratio">correlation ratio</a> η²) of all
+ * pairs of numeric and nominal columns.
+ * <br>
+ * For each nominal column, per-level counts, sums and sums of squares of many numeric columns are accumulated
+ * simultaneously while scanning rows by chunks of {@link #CHUNK_ROWS} rows, so level codes of a chunk are read
+ * from processor cache for all numeric columns of a block of {@link #BLOCK_COLUMNS} columns. Values are shifted by
+ * the first value of their column, so sums of squares don't lose precision for data far from zero.
+ * If per-level statistics of high-cardinality column would exceed {@link #MAX_DENSE_CELLS}, rows are sorted by level
+ * instead and levels are accumulated one after another, so memory consumption is bounded by amount of rows.
+ * Blocks of all nominal columns are calculated concurrently.
+ * <br>
+ * Rows with missing nominal value or {@code NaN} numeric value are skipped. R² is stored as square correlation value
+ * and correlation value is {@code NaN}, as matrix expects for mixed pairs.
+ */
+public final class AnovaCalculator
+{
+	/**
+	 * Amount of numeric columns accumulated simultaneously.
+	 */
+	private static final int BLOCK_COLUMNS = 32;
+
+	/**
+	 * Amount of rows in chunk, which are accumulated for all numeric columns of block at once.
+	 */
+	private static final int CHUNK_ROWS = 4096;
+
+	/**
+	 * Maximum amount of per-level statistics of block, which are accumulated in dense arrays.
+	 */
+	private static final int MAX_DENSE_CELLS = 1 << 20;
+
+	private AnovaCalculator()
+	{
+	}
+
+	/**
+	 * Calculates ANOVA R² of all pairs of given numeric and nominal columns and stores them in given correlations.
+	 *
+	 * @param numericColumns numeric data, {@code numericColumns[c][r]} is value of column {@code c} in row {@code r}
+	 * @param numericIndexes row of correlation matrix for each numeric column
+	 * @param nominalColumns encoded nominal columns of the same size
+	 * @param nominalIndexes row of correlation matrix for each nominal column
+	 * @param target correlations to store results in
+	 * @param pool pool to calculate in parallel, {@code null} to calculate in current thread
+	 */
+	public static void calculate(double[][] numericColumns, int[] numericIndexes, NominalColumn[] nominalColumns,
+			int[] nominalIndexes, PackedCorrelations target, /* Nullable */ ForkJoinPool pool)
+	{
+		Objects.requireNonNull(target);
+		if (numericColumns.length != numericIndexes.length || nominalColumns.length != nominalIndexes.length)
+		{
+			throw new IllegalArgumentException();
+		}
+		int rows = numericColumns.length > 0 ? numericColumns[0].length : 0;
+		for (int c = 0; c < numericColumns.length; c++)
+		{
+			if (numericColumns[c].length != rows || numericIndexes[c] < 0 || numericIndexes[c] >= target.length())
+			{
+				throw new IllegalArgumentException();
+			}
+		}
+		for (int c = 0; c < nominalColumns.length; c++)
+		{
+			if ((numericColumns.length > 0 && nominalColumns[c].size() != rows) || nominalIndexes[c] < 0
+					|| nominalIndexes[c] >= target.length())
+			{
+				throw new IllegalArgumentException();
+			}
+		}
+
+		int blocks = (numericColumns.length + BLOCK_COLUMNS - 1) / BLOCK_COLUMNS;
+		Utilities.forEach(pool, IntStream.range(0, nominalColumns.length * blocks), task -> {
+			int nominal = task / blocks;
+			int from = task % blocks * BLOCK_COLUMNS;
+			int width = Math.min(BLOCK_COLUMNS, numericColumns.length - from);
+			NominalColumn nominalColumn = nominalColumns[nominal];
+			double[] values = (long) width * nominalColumn.levels <= MAX_DENSE_CELLS
+					? calculateBlock(numericColumns, from, width, nominalColumn)
+					: calculateSorted(numericColumns, from, width, nominalColumn);
+			for (int c = 0; c < width; c++)
+			{
+				target.setCorrelation(numericIndexes[from + c], nominalIndexes[nominal], Double.NaN, values[c]);
+			}
+		});
+	}
+
+	/**
+	 * Calculates ANOVA R² of given block of numeric columns with given nominal column.
+	 *
+	 * @param numericColumns numeric data
+	 * @param from index of the first numeric column of block
+	 * @param width amount of numeric columns in block
+	 * @param nominal nominal column
+	 * @return R² for each numeric column of block, {@code NaN} if it's constant or has no counted rows
+	 */
+	private static double[] calculateBlock(double[][] numericColumns, int from, int width, NominalColumn nominal)
+	{
+		int levels = nominal.levels;
+		int[] codes = nominal.codes;
+		int rows = codes.length;
+
+		// accumulating per-level statistics of values shifted by the first non-NaN value
+		double[] shifts = new double[width];
+		int[][] counts = new int[width][levels];
+		double[][] sums = new double[width][levels];
+		double[][] squares = new double[width][levels];
+		for (int c = 0; c < width; c++)
+		{
+			shifts[c] = firstValue(numericColumns[from + c]);
+		}
+		for (int chunk = 0; chunk < rows; chunk += CHUNK_ROWS)
+		{
+			int end = Math.min(rows, chunk + CHUNK_ROWS);
+			for (int c = 0; c < width; c++)
+			{
+				double[] column = numericColumns[from + c];
+				double shift = shifts[c];
+				int[] columnCounts = counts[c];
+				double[] columnSums = sums[c];
+				double[] columnSquares = squares[c];
+				for (int r = chunk; r < end; r++)
+				{
+					int code = codes[r];
+					double value = column[r] - shift;
+					// NaN values fail the comparison as well
+					if (code != NominalColumn.MISSING && value == value)
+					{
+						columnCounts[code]++;
+						columnSums[code] += value;
+						columnSquares[code] += value * value;
+					}
+				}
+			}
+		}
+
+		double[] values = new double[width];
+		for (int c = 0; c < width; c++)
+		{
+			values[c] = rSqr(counts[c], sums[c], squares[c]);
+		}
+		return values;
+	}
+
+	/**
+	 * Calculates ANOVA R² of given block of numeric columns with given nominal column, accumulating levels one after
+	 * another in rows sorted by level. Rows are represented with level code in high bits and row index in low bits.
+	 *
+	 * @param numericColumns numeric data
+	 * @param from index of the first numeric column of block
+	 * @param width amount of numeric columns in block
+	 * @param nominal nominal column
+	 * @return R² for each numeric column of block, {@code NaN} if it's constant or has no counted rows
+	 */
+	private static double[] calculateSorted(double[][] numericColumns, int from, int width, NominalColumn nominal)
+	{
+		int[] codes = nominal.codes;
+		long[] keys = new long[codes.length];
+		int counted = 0;
+		for (int r = 0; r < codes.length; r++)
+		{
+			if (codes[r] != NominalColumn.MISSING)
+			{
+				keys[counted++] = (long) codes[r] << 32 | r;
+			}
+		}
+		Arrays.sort(keys, 0, counted);
+
+		double[] values = new double[width];
+		for (int c = 0; c < width; c++)
+		{
+			double[] column = numericColumns[from + c];
+			double shift = firstValue(column);
+			long total = 0;
+			double sum = 0;
+			double sumSquares = 0;
+			double levelsSquares = 0;
+			for (int start = 0; start < counted; )
+			{
+				long code = keys[start] >>> 32;
+				int count = 0;
+				double levelSum = 0;
+				for (; start < counted && keys[start] >>> 32 == code; start++)
+				{
+					double value = column[(int) keys[start]] - shift;
+					// NaN values fail the comparison as well
+					if (value == value)
+					{
+						count++;
+						levelSum += value;
+						sumSquares += value * value;
+					}
+				}
+				if (count > 0)
+				{
+					total += count;
+					sum += levelSum;
+					levelsSquares += levelSum * levelSum / count;
+				}
+			}
+			values[c] = rSqr(total, sum, sumSquares, levelsSquares);
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the first non-{@code NaN} value of given column.
+	 *
+	 * @param column numeric column
+	 * @return the first value, {@code 0} if there are no such values
+	 */
+	private static double firstValue(double[] column)
+	{
+		for (double value : column)
+		{
+			if (!Double.isNaN(value))
+			{
+				return value;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Calculates R² as ratio of between-levels sum of squares to total sum of squares.
+	 *
+	 * @param counts amount of counted rows per level
+	 * @param sums sum of values per level
+	 * @param squares sum of squared values per level
+	 * @return R², {@code NaN} if values are constant or there are no counted rows
+	 */
+	private static double rSqr(int[] counts, double[] sums, double[] squares)
+	{
+		long total = 0;
+		double sum = 0;
+		double sumSquares = 0;
+		double levelsSquares = 0;
+		for (int level = 0; level < counts.length; level++)
+		{
+			if (counts[level] > 0)
+			{
+				total += counts[level];
+				sum += sums[level];
+				sumSquares += squares[level];
+				levelsSquares += sums[level] * sums[level] / counts[level];
+			}
+		}
+		return rSqr(total, sum, sumSquares, levelsSquares);
+	}
+
+	/**
+	 * Calculates R² from sums over all levels.
+	 *
+	 * @param total amount of counted rows
+	 * @param sum sum of values
+	 * @param sumSquares sum of squared values
+	 * @param levelsSquares sum of squared per-level sums divided by per-level counts
+	 * @return R², {@code NaN} if values are constant or there are no counted rows
+	 */
+	private static double rSqr(long total, double sum, double sumSquares, double levelsSquares)
+	{
+		double mean = sum / total;
+		double totalSquares = sumSquares - sum * mean;
+		double betweenSquares = levelsSquares - sum * mean;
+		if (total == 0 || !(totalSquares > 0))
+		{
+			return Double.NaN;
+		}
+		// rounding errors may slightly exceed the range
+		return Math.max(0, Math.min(1, betweenSquares / totalSquares));
+	}
+}
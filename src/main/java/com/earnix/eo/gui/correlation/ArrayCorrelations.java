@@ -0,0 +1,62 @@
+package com.earnix.eo.gui.correlation;
+
+import java.util.Objects;
+
+/**
+ * Correlation source which keeps correlations and square correlations in two-dimensional arrays.
+ */
+class ArrayCorrelations implements CorrelationSource
+{
+	/**
+	 * Two-dimensional array with correlation values.
+	 */
+	final double[][] correlations;
+
+	/**
+	 * Two-dimensional array with square correlation values.
+	 */
+	final double[][] correlationsSqr;
+
+	/**
+	 * Creates correlation source from given arrays, which are not copied.
+	 *
+	 * @param correlations two-dimensional array with correlation values
+	 * @param correlationsSqr two-dimensional array with square correlation values
+	 */
+	ArrayCorrelations(double[][] correlations, double[][] correlationsSqr)
+	{
+		this.correlations = Objects.requireNonNull(correlations);
+		this.correlationsSqr = Objects.requireNonNull(correlationsSqr);
+		if (correlations.length != correlationsSqr.length)
+		{
+			throw new IllegalArgumentException();
+		}
+	}
+
+	@Override
+	public int length()
+	{
+		return correlations.length;
+	}
+
+	@Override
+	public double getCorrelation(int i, int j)
+	{
+		return correlations[i][j];
+	}
+
+	@Override
+	public double getCorrelationSqr(int i, int j)
+	{
+		return correlationsSqr[i][j];
+	}
+
+	@Override
+	public void setCorrelation(int i, int j, double correlation, double correlationSqr)
+	{
+		correlations[i][j] = correlation;
+		correlations[j][i] = correlation;
+		correlationsSqr[i][j] = correlationSqr;
+		correlationsSqr[j][i] = correlationSqr;
+	}
+}
@@ -0,0 +1,80 @@
+package com.earnix.eo.gui.correlation;
+
+import java.awt.Color;
+
+/**
+ * Precomputed lookup table of cell colors. Absolute value of correlation is quantized into {@link #STEPS} steps
+ * per sign, color of each step is interpolated (see {@link Utilities#interpolateRgb(int, int, double)}) once
+ * between positive or negative color and background color. Is immutable, so may be used from any thread.
+ *
+ * @see CorrelationMatrix#positiveColor
+ * @see CorrelationMatrix#negativeColor
+ */
+class CellColors
+{
+	/**
+	 * Amount of quantization steps per sign.
+	 */
+	static final int STEPS = 1024;
+
+	private final int[] positiveRgb = new int[STEPS + 1];
+	private final int[] negativeRgb = new int[STEPS + 1];
+	private final Color[] positiveColors = new Color[STEPS + 1];
+	private final Color[] negativeColors = new Color[STEPS + 1];
+
+	/**
+	 * Creates lookup table for given colors.
+	 *
+	 * @param positiveColor color of positive correlations
+	 * @param negativeColor color of negative correlations
+	 * @param background background color to mix with
+	 */
+	CellColors(Color positiveColor, Color negativeColor, Color background)
+	{
+		for (int step = 0; step <= STEPS; step++)
+		{
+			double interpolation = step / (double) STEPS;
+			positiveRgb[step] = Utilities.interpolateRgb(positiveColor.getRGB(), background.getRGB(), interpolation);
+			negativeRgb[step] = Utilities.interpolateRgb(negativeColor.getRGB(), background.getRGB(), interpolation);
+			positiveColors[step] = new Color(positiveRgb[step]);
+			negativeColors[step] = new Color(negativeRgb[step]);
+		}
+	}
+
+	/**
+	 * Returns color of cell with given value.
+	 *
+	 * @param value correlation value
+	 * @return packed ARGB color, transparent for {@code NaN} value
+	 */
+	int getRgb(double value)
+	{
+		if (Double.isNaN(value))
+		{
+			return 0;
+		}
+		return value > 0 ? positiveRgb[step(value)] : negativeRgb[step(value)];
+	}
+
+	/**
+	 * Returns color of cell with given value.
+	 *
+	 * @param value correlation value, not {@code NaN}
+	 * @return cell color
+	 */
+	Color getColor(double value)
+	{
+		return value > 0 ? positiveColors[step(value)] : negativeColors[step(value)];
+	}
+
+	/**
+	 * Returns quantization step of given value.
+	 *
+	 * @param value correlation value
+	 * @return step index, from {@code 0} to {@link #STEPS}
+	 */
+	private static int step(double value)
+	{
+		return Math.min((int) (Math.abs(value) * STEPS + 0.5), STEPS);
+	}
+}
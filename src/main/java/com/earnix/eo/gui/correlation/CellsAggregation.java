@@ -0,0 +1,20 @@
+package com.earnix.eo.gui.correlation;
+
+/**
+ * Used to specify how values of several data cells are combined, when cells are smaller than a device pixel
+ * and each pixel displays a block of cells.
+ *
+ * @see CorrelationMatrix#setCellsAggregation(CellsAggregation)
+ */
+public enum CellsAggregation
+{
+	/**
+	 * Block displays the value with the largest absolute value, so strong correlations stay visible.
+	 */
+	MAXIMUM_ABSOLUTE,
+
+	/**
+	 * Block displays the mean of its values.
+	 */
+	MEAN
+}
@@ -0,0 +1,155 @@
+package com.earnix.eo.gui.correlation;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Rasterizes data cells in compact mode directly into pixels of {@code int} backed image, bypassing
+ * shape filling of graphical context. Each device pixel takes color of the cell its center belongs to.
+ * Cells with {@code NaN} values, diagonal cells and cells over the diagonal stay transparent.
+ * <br>
+ * If cells are smaller than a pixel, pixels may take aggregated values of cell blocks from {@link ValuesPyramid}
+ * instead of values of single cells.
+ */
+class CellsRaster
+{
+	/**
+	 * Colors of cells.
+	 */
+	private final CellColors colors;
+
+	/**
+	 * Source of displayed values.
+	 */
+	private final CorrelationSource correlations;
+
+	/**
+	 * Horizontal location of the first column, relative to cells area.
+	 */
+	private final double cellsStart;
+
+	/**
+	 * Width and height of data cell.
+	 */
+	private final double cellSize;
+
+	/**
+	 * Amount of device pixels in one unit of cells area coordinates.
+	 */
+	private final double scale;
+
+	/**
+	 * Pyramid of aggregated values, {@code null} if values of single cells are displayed.
+	 */
+	private final ValuesPyramid pyramid;
+
+	/**
+	 * Level of {@link #pyramid} to take aggregated values from, {@code 0} if values of single cells are displayed.
+	 */
+	private final int level;
+
+	/**
+	 * How values of cell blocks are combined, if aggregated values are displayed.
+	 */
+	private final CellsAggregation aggregation;
+
+	/**
+	 * Creates rasterizer for given grid geometry, which displays values of single cells.
+	 *
+	 * @param colors colors of cells
+	 * @param correlations source of values
+	 * @param cellsStart horizontal location of the first column, relative to cells area
+	 * @param cellSize width and height of data cell
+	 * @param scale amount of device pixels in one unit of cells area coordinates
+	 */
+	CellsRaster(CellColors colors, CorrelationSource correlations, double cellsStart, double cellSize, double scale)
+	{
+		this(colors, correlations, cellsStart, cellSize, scale, null, 0, CellsAggregation.MAXIMUM_ABSOLUTE);
+	}
+
+	/**
+	 * Creates rasterizer for given grid geometry, which displays aggregated values of cell blocks.
+	 *
+	 * @param colors colors of cells
+	 * @param correlations source of values
+	 * @param cellsStart horizontal location of the first column, relative to cells area
+	 * @param cellSize width and height of data cell
+	 * @param scale amount of device pixels in one unit of cells area coordinates
+	 * @param pyramid pyramid of aggregated values, {@code null} to display values of single cells
+	 * @param level pyramid level, see {@link ValuesPyramid#getLevel(double)}
+	 * @param aggregation how values of cell blocks are combined
+	 */
+	CellsRaster(CellColors colors, CorrelationSource correlations, double cellsStart, double cellSize,
+			double scale, /* Nullable */ ValuesPyramid pyramid, int level, CellsAggregation aggregation)
+	{
+		this.colors = colors;
+		this.correlations = correlations;
+		this.cellsStart = cellsStart;
+		this.cellSize = cellSize;
+		this.scale = scale;
+		this.pyramid = pyramid;
+		this.level = pyramid != null ? level : 0;
+		this.aggregation = aggregation;
+	}
+
+	/**
+	 * Renders cells which intersect given area into new image of area's size.
+	 *
+	 * @param area area in device pixels, relative to cells area
+	 * @return image with rendered cells
+	 */
+	BufferedImage render(Rectangle area)
+	{
+		BufferedImage image = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_ARGB);
+		int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+
+		// calculating column index for each pixel column once
+		int[] columns = new int[area.width];
+		for (int x = 0; x < area.width; x++)
+		{
+			columns[x] = (int) Math.floor(((area.x + x + 0.5) / scale - cellsStart) / cellSize);
+		}
+
+		int length = correlations.length();
+		int previousRow = Integer.MIN_VALUE;
+		for (int y = 0; y < area.height; y++)
+		{
+			int offset = y * area.width;
+			int j = (int) Math.floor((area.y + y + 0.5) / scale / cellSize);
+			if (j == previousRow)
+			{
+				// pixel row matches the same cells as previous one
+				System.arraycopy(pixels, offset - area.width, pixels, offset, area.width);
+				continue;
+			}
+			previousRow = j;
+			if (j < 0 || j >= length)
+			{
+				continue;
+			}
+
+			int previousColumn = Integer.MIN_VALUE;
+			int rgb = 0;
+			for (int x = 0; x < area.width; x++)
+			{
+				int i = columns[x];
+				if (i != previousColumn)
+				{
+					previousColumn = i;
+					rgb = 0;
+					// painting cells only below the diagonal
+					if (i >= 0 && i < j)
+					{
+						double value = level > 0
+								? pyramid.getValue(level, i, j, aggregation)
+								: correlations.getValue(i, j);
+						rgb = colors.getRgb(value);
+					}
+				}
+				pixels[offset + x] = rgb;
+			}
+		}
+		return image;
+	}
+}
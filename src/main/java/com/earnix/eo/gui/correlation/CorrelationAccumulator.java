@@ -0,0 +1,309 @@
+package com.earnix.eo.gui.correlation;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Accumulates Pearson correlations of numeric columns from a stream of row batches, so the whole data set is never
+ * kept in memory and matrix can display intermediate results while data is still arriving.
+ * <br>
+ * Keeps mergeable sufficient statistics: amount of rows, column means and co-moments (sums of products of deviations
+ * from means) of all pairs of columns. Statistics of each batch are calculated by the calling thread and are merged
+ * with accumulated ones by pairwise update formula (Welford / Chan et al.), which is numerically stable. So batches
+ * may be added concurrently by many producer threads, which only synchronize for the merge.
+ * <br>
+ * Rows shouldn't contain {@code NaN} values, like columns given to {@link PearsonCalculator}.
+ */
+public final class CorrelationAccumulator
+{
+	/**
+	 * Amount of columns.
+	 */
+	private final int columns;
+
+	/**
+	 * Accumulated statistics, guarded by this accumulator.
+	 */
+	private final Moments moments;
+
+	/**
+	 * Incremented on each added batch, guarded by this accumulator.
+	 */
+	private long version;
+
+	/**
+	 * Creates empty accumulator.
+	 *
+	 * @param columns amount of columns, which is amount of rows of correlation matrix
+	 */
+	public CorrelationAccumulator(int columns)
+	{
+		if (columns < 0 || columns > PackedCorrelations.MAX_LENGTH)
+		{
+			throw new IllegalArgumentException("Unsupported amount of columns: " + columns);
+		}
+		this.columns = columns;
+		this.moments = new Moments(columns);
+	}
+
+	/**
+	 * Adds batch of rows. May be called from any thread concurrently with other methods.
+	 *
+	 * @param rows data rows, {@code rows[r][c]} is value of column {@code c} in row {@code r}
+	 */
+	public void add(double[][] rows)
+	{
+		for (double[] row : rows)
+		{
+			if (row.length != columns)
+			{
+				throw new IllegalArgumentException("Row has " + row.length + " values instead of " + columns);
+			}
+		}
+		if (rows.length == 0)
+		{
+			return;
+		}
+
+		Moments batch = Moments.of(rows, columns);
+		synchronized (this)
+		{
+			moments.merge(batch);
+			version++;
+		}
+	}
+
+	/**
+	 * @return amount of accumulated rows
+	 */
+	public synchronized long getCount()
+	{
+		return moments.count;
+	}
+
+	/**
+	 * Calculates correlations of accumulated rows. May be called from any thread.
+	 *
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 * @return correlations, {@code NaN} for columns which are constant so far
+	 */
+	public PackedCorrelations snapshot(boolean singlePrecision)
+	{
+		double[] coMoments;
+		synchronized (this)
+		{
+			coMoments = moments.coMoments.clone();
+		}
+
+		PackedCorrelations result = new PackedCorrelations(columns, singlePrecision);
+		for (int a = 0; a < columns; a++)
+		{
+			double varianceA = coMoments[(int) PackedCorrelations.triangleIndex(columns, a, a)];
+			for (int b = 0; b <= a; b++)
+			{
+				int index = (int) PackedCorrelations.triangleIndex(columns, a, b);
+				double varianceB = coMoments[(int) PackedCorrelations.triangleIndex(columns, b, b)];
+				double correlation = coMoments[index] / Math.sqrt(varianceA * varianceB);
+				// rounding errors may slightly exceed the range, NaN is kept
+				correlation = correlation > 1 ? 1 : correlation < -1 ? -1 : correlation;
+				result.setCorrelation(a, b, correlation, correlation * correlation);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Displays correlations of accumulated rows in given matrix, keeping its titles and data types.
+	 * Should be called in event dispatch thread.
+	 *
+	 * @param matrix matrix which rows correspond to columns of this accumulator
+	 */
+	public void publish(CorrelationMatrix matrix)
+	{
+		if (matrix.length() != columns)
+		{
+			throw new IllegalArgumentException();
+		}
+		matrix.setData(matrix.getDataTypes(), matrix.getTitles(), snapshot(true));
+	}
+
+	/**
+	 * Starts periodical publishing of accumulated correlations into given matrix. Matrix is updated at most once per
+	 * given delay and only if new rows were added since the previous update, so fast producers don't flood event
+	 * dispatch thread with repaints. Correlations are calculated in common pool, event dispatch thread only displays
+	 * them; the next calculation starts after the previous one is displayed. Correlations calculated after the timer
+	 * is stopped are not displayed. If calculation fails, the error is passed to uncaught exception handler of event
+	 * dispatch thread, like errors thrown by listeners, and calculation is repeated on the next update.
+	 * Should be called in event dispatch thread.
+	 *
+	 * @param matrix matrix which rows correspond to columns of this accumulator
+	 * @param delay minimal delay between updates in milliseconds
+	 * @return started timer, which should be stopped when all batches are added
+	 * @see #publish(CorrelationMatrix)
+	 */
+	public Timer startPublishing(CorrelationMatrix matrix, int delay)
+	{
+		return startPublishing(matrix, delay, () -> CompletableFuture.supplyAsync(() -> snapshot(true)));
+	}
+
+	/**
+	 * Starts periodical publishing of correlations, calculated by given function, see
+	 * {@link #startPublishing(CorrelationMatrix, int)}. Package access for testing purpose.
+	 *
+	 * @param matrix matrix which rows correspond to columns of this accumulator
+	 * @param delay minimal delay between updates in milliseconds
+	 * @param snapshots starts calculation of correlations of accumulated rows
+	 * @return started timer
+	 */
+	Timer startPublishing(CorrelationMatrix matrix, int delay, Supplier<CompletableFuture<PackedCorrelations>> snapshots)
+	{
+		if (matrix.length() != columns)
+		{
+			throw new IllegalArgumentException();
+		}
+		long[] publishedVersion = new long[] { -1 };
+		boolean[] calculating = new boolean[1];
+		Timer timer = new Timer(delay, null);
+		timer.addActionListener(e -> {
+			long currentVersion;
+			synchronized (this)
+			{
+				currentVersion = version;
+			}
+			if (currentVersion != publishedVersion[0] && !calculating[0])
+			{
+				publishedVersion[0] = currentVersion;
+				calculating[0] = true;
+				snapshots.get().whenCompleteAsync((snapshot, error) -> {
+					calculating[0] = false;
+					if (error != null)
+					{
+						// the same rows are calculated again on the next update
+						publishedVersion[0] = -1;
+						Thread thread = Thread.currentThread();
+						thread.getUncaughtExceptionHandler().uncaughtException(thread,
+								error instanceof CompletionException && error.getCause() != null ?
+										error.getCause() : error);
+					}
+					else if (timer.isRunning())
+					{
+						matrix.setData(matrix.getDataTypes(), matrix.getTitles(), snapshot);
+					}
+				}, SwingUtilities::invokeLater);
+			}
+		});
+		timer.start();
+		return timer;
+	}
+
+	/**
+	 * Amount of rows, means and co-moments of columns.
+	 */
+	private static class Moments
+	{
+		/**
+		 * Amount of rows.
+		 */
+		long count;
+
+		/**
+		 * Column means.
+		 */
+		final double[] means;
+
+		/**
+		 * Sums of products of deviations from means for lower triangle (including diagonal) of column pairs,
+		 * see {@link PackedCorrelations#triangleIndex(int, int, int)}.
+		 */
+		final double[] coMoments;
+
+		/**
+		 * Creates moments of empty set of rows.
+		 *
+		 * @param columns amount of columns
+		 */
+		Moments(int columns)
+		{
+			means = new double[columns];
+			coMoments = new double[(int) PackedCorrelations.triangleSize(columns)];
+		}
+
+		/**
+		 * Calculates moments of given rows.
+		 *
+		 * @param rows data rows
+		 * @param columns amount of columns
+		 * @return moments of rows
+		 */
+		static Moments of(double[][] rows, int columns)
+		{
+			Moments result = new Moments(columns);
+			result.count = rows.length;
+			for (double[] row : rows)
+			{
+				for (int c = 0; c < columns; c++)
+				{
+					result.means[c] += row[c];
+				}
+			}
+			for (int c = 0; c < columns; c++)
+			{
+				result.means[c] /= rows.length;
+			}
+
+			// deviations are stored by columns, so products of column pairs read contiguous memory
+			double[][] deviations = new double[columns][rows.length];
+			for (int r = 0; r < rows.length; r++)
+			{
+				for (int c = 0; c < columns; c++)
+				{
+					deviations[c][r] = rows[r][c] - result.means[c];
+				}
+			}
+			int index = 0;
+			for (int a = 0; a < columns; a++)
+			{
+				for (int b = 0; b <= a; b++)
+				{
+					double sum = 0;
+					for (int r = 0; r < rows.length; r++)
+					{
+						sum += deviations[a][r] * deviations[b][r];
+					}
+					result.coMoments[index++] = sum;
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Adds given moments of other rows to these ones.
+		 *
+		 * @param other moments of other rows
+		 */
+		void merge(Moments other)
+		{
+			long total = count + other.count;
+			double weight = (double) count * other.count / total;
+			double[] deltas = new double[means.length];
+			for (int c = 0; c < means.length; c++)
+			{
+				deltas[c] = other.means[c] - means[c];
+				means[c] += deltas[c] * other.count / total;
+			}
+			int index = 0;
+			for (int a = 0; a < means.length; a++)
+			{
+				for (int b = 0; b <= a; b++)
+				{
+					coMoments[index] += other.coMoments[index] + deltas[a] * deltas[b] * weight;
+					index++;
+				}
+			}
+			count = total;
+		}
+	}
+}
@@ -8,10 +8,12 @@ import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Correlation matrix component. Consist of proportionally resizing correlation matrix and temperature scale pane.
- * Provides presentation customization settings. Does not provide correlations calculation functionality.
+ * Provides presentation customization settings. Correlations may be calculated with {@link PearsonCalculator},
+ * {@link CramersVCalculator} and {@link AnovaCalculator}.
  * <br>
  * There are two display modes of correlation matrix. If there is enough space for cell to take equal or
  * more then {@code 16} pixels (is customizable with {@link #setCompactCellSize(int)}), correlations are displayed as ovals, where oval radius
@@ -36,10 +38,9 @@ import java.util.Objects;
  */
 public class CorrelationMatrix extends JPanel
 {
-	final List<String> titles;
-	final double[][] correlations;
-	final double[][] correlationsSqr;
-	final List<RowType> dataTypes;
+	List<String> titles;
+	CorrelationSource correlations;
+	List<RowType> dataTypes;
 
 	/**
 	 * Maximum amount of cells (in square) to be displayed in zoom.
@@ -67,6 +68,11 @@ public class CorrelationMatrix extends JPanel
 	 */
 	Color negativeColor = new Color(0x274184);
 
+	/**
+	 * Lookup table of cell colors, is rebuilt when positive, negative or background color is changed.
+	 */
+	CellColors cellColors = new CellColors(positiveColor, negativeColor, getBackground());
+
 	/**
 	 * Background color of cell and title tooltips.
 	 */
@@ -185,6 +191,34 @@ public class CorrelationMatrix extends JPanel
 	 */
 	int temperatureScaleVerticalMargin = 5;
 
+	/**
+	 * Amount of threads used to render grid cells. If {@code 1} - cells are rendered in event dispatch thread only.
+	 */
+	int renderingParallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Whether grid cells are rendered in background after change of size, data or presentation, while the last
+	 * rendered image is displayed scaled. Requires {@link #renderingParallelism} greater than {@code 1}.
+	 */
+	boolean backgroundRendering = true;
+
+	/**
+	 * Time in milliseconds, which size of grid should be stable for before grid is laid out and rendered for the new
+	 * size. Meanwhile the last rendered image is displayed scaled. If {@code 0} - grid is laid out and rendered for each
+	 * intermediate size.
+	 */
+	int resizeIdleTime = 150;
+
+	/**
+	 * How values of cells blocks are combined, when cells are smaller than a pixel.
+	 */
+	CellsAggregation cellsAggregation = CellsAggregation.MAXIMUM_ABSOLUTE;
+
+	/**
+	 * Pool which renders grid tiles concurrently. Is created on demand, {@code null} if not created yet.
+	 */
+	private ForkJoinPool renderingPool;
+
 	final CorrelationMatrixGrid grid;
 	final TemperatureScale temperatureScalePanel;
 
@@ -199,17 +233,26 @@ public class CorrelationMatrix extends JPanel
 	 */
 	public CorrelationMatrix(List<RowType> dataTypes, List<String> titles, double[][] correlations,
 			double[][] correlationsSqr)
+	{
+		this(dataTypes, titles, new ArrayCorrelations(correlations, correlationsSqr));
+	}
+
+	/**
+	 * Creates correlation matrix component with given source of correlations. Large matrices may be kept in compact
+	 * {@link PackedCorrelations} or off-heap in {@link MappedCorrelations}.
+	 *
+	 * @param dataTypes types of data rows.
+	 * @param titles data rows titles to display
+	 * @param correlations source of correlation values
+	 * @see com.earnix.eo.gui.correlation.RowType
+	 */
+	public CorrelationMatrix(List<RowType> dataTypes, List<String> titles, CorrelationSource correlations)
 	{
 		// setting initial data
-		this.dataTypes = Objects.requireNonNull(dataTypes);
-		this.titles = Objects.requireNonNull(titles);
-		this.correlations = Objects.requireNonNull(correlations);
-		this.correlationsSqr = Objects.requireNonNull(correlationsSqr);
-		if (dataTypes.size() != titles.size() || titles.size() != correlations.length
-				|| correlations.length != correlationsSqr.length)
-		{
-			throw new IllegalArgumentException();
-		}
+		checkData(dataTypes, titles, correlations);
+		this.dataTypes = dataTypes;
+		this.titles = titles;
+		this.correlations = correlations;
 
 		setLayout(new GridBagLayout());
 
@@ -233,6 +276,71 @@ public class CorrelationMatrix extends JPanel
 		add(temperatureScalePanel, constraints);
 	}
 
+	/**
+	 * Checks that given data is consistent.
+	 *
+	 * @param dataTypes types of data rows
+	 * @param titles data rows titles
+	 * @param correlations source of correlation values
+	 */
+	private static void checkData(List<RowType> dataTypes, List<String> titles, CorrelationSource correlations)
+	{
+		Objects.requireNonNull(dataTypes);
+		Objects.requireNonNull(titles);
+		Objects.requireNonNull(correlations);
+		if (dataTypes.size() != titles.size() || titles.size() != correlations.length())
+		{
+			throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Replaces displayed data, reusing this component. Should be called in event dispatch thread.
+	 *
+	 * @param dataTypes types of data rows.
+	 * @param titles data rows titles to display
+	 * @param correlations two-dimensional array with correlation values. {@code NaN} means absence of correlation.
+	 * @param correlationsSqr two-dimensional array with square correlation values. {@code NaN} means absence of correlation.
+	 * @see #setData(List, List, CorrelationSource)
+	 */
+	public void setData(List<RowType> dataTypes, List<String> titles, double[][] correlations,
+			double[][] correlationsSqr)
+	{
+		setData(dataTypes, titles, new ArrayCorrelations(correlations, correlationsSqr));
+	}
+
+	/**
+	 * Replaces displayed data, reusing this component. Should be called in event dispatch thread.
+	 * <br>
+	 * If titles are equal to current ones, title measurements are kept and layout is not changed, which makes
+	 * switching between versions of the same matrix instant. Highlight and zoom are preserved if the amount of
+	 * data rows is not changed.
+	 *
+	 * @param dataTypes types of data rows.
+	 * @param titles data rows titles to display
+	 * @param correlations source of correlation values
+	 */
+	public void setData(List<RowType> dataTypes, List<String> titles, CorrelationSource correlations)
+	{
+		checkData(dataTypes, titles, correlations);
+		boolean lengthChanged = titles.size() != length();
+		boolean titlesChanged = !titles.equals(this.titles);
+
+		this.dataTypes = dataTypes;
+		if (titlesChanged)
+		{
+			// keeping the same list otherwise, since title caches are bound to it
+			this.titles = titles;
+		}
+		this.correlations = correlations;
+
+		grid.dataChanged(lengthChanged, titlesChanged);
+		if (titlesChanged)
+		{
+			revalidate();
+		}
+	}
+
 	/**
 	 * Returns amount of rows in correlations table
 	 *
@@ -244,7 +352,7 @@ public class CorrelationMatrix extends JPanel
 	}
 
 	/**
-	 * Returns correlation value (square) for given cell coordinates. Source - {@link #correlationsSqr}.
+	 * Returns correlation value (square) for given cell coordinates. Source - {@link #correlations}.
 	 *
 	 * @param i row index
 	 * @param j column index
@@ -252,16 +360,156 @@ public class CorrelationMatrix extends JPanel
 	 */
 	double getValue(int i, int j)
 	{
-		double value;
-		if (correlations[i][j] < 0)
+		return correlations.getValue(i, j);
+	}
+
+	/**
+	 * Changes correlation of given pair of data rows and repaints only the changed cell (and zoom, if it displays
+	 * the cell). Should be called in event dispatch thread.
+	 *
+	 * @param i index of the first data row
+	 * @param j index of the second data row
+	 * @param correlation correlation value. {@code NaN} means absence of correlation.
+	 * @param correlationSqr square correlation value. {@code NaN} means absence of correlation.
+	 * @throws UnsupportedOperationException if correlation source is read-only, like {@link MappedCorrelations}
+	 */
+	public void updateCell(int i, int j, double correlation, double correlationSqr)
+	{
+		correlations.setCorrelation(i, j, correlation, correlationSqr);
+		cellsChanged(i, j, i + 1, j + 1);
+	}
+
+	/**
+	 * Changes correlations of given block of cells and repaints only the changed cells (and zoom, if it displays
+	 * any of them). Value {@code [k][l]} of given arrays is correlation of data rows {@code fromI + k} and
+	 * {@code fromJ + l}. Should be called in event dispatch thread.
+	 *
+	 * @param fromI index of the first data row of block
+	 * @param fromJ index of the first data column of block
+	 * @param correlations rectangular two-dimensional array with correlation values. {@code NaN} means absence of correlation.
+	 * @param correlationsSqr array of the same size with square correlation values. {@code NaN} means absence of correlation.
+	 * @throws UnsupportedOperationException if correlation source is read-only, like {@link MappedCorrelations}
+	 */
+	public void updateCells(int fromI, int fromJ, double[][] correlations, double[][] correlationsSqr)
+	{
+		int rows = correlations.length;
+		int columns = rows > 0 ? correlations[0].length : 0;
+		if (correlationsSqr.length != rows || fromI < 0 || fromJ < 0 || fromI + rows > length()
+				|| fromJ + columns > length())
+		{
+			throw new IllegalArgumentException();
+		}
+		for (int k = 0; k < rows; k++)
+		{
+			if (correlations[k].length != columns || correlationsSqr[k].length != columns)
+			{
+				throw new IllegalArgumentException();
+			}
+		}
+		if (columns == 0)
 		{
-			value = -correlationsSqr[i][j];
+			return;
 		}
-		else
+
+		for (int k = 0; k < rows; k++)
 		{
-			value = correlationsSqr[i][j];
+			for (int l = 0; l < columns; l++)
+			{
+				this.correlations.setCorrelation(fromI + k, fromJ + l, correlations[k][l], correlationsSqr[k][l]);
+			}
+		}
+		cellsChanged(fromI, fromJ, fromI + rows, fromJ + columns);
+	}
+
+	/**
+	 * Updates presentation of changed block of cells. Matrix is symmetric, so both the block and its
+	 * transposition are updated, but only cells below the diagonal are displayed.
+	 *
+	 * @param fromI index of the first changed data row
+	 * @param fromJ index of the first changed data column
+	 * @param toI index of the data row after the last changed one
+	 * @param toJ index of the data column after the last changed one
+	 */
+	private void cellsChanged(int fromI, int fromJ, int toI, int toJ)
+	{
+		grid.cellsChanged(fromI, fromJ, toI, toJ);
+		if (fromI != fromJ || toI != toJ)
+		{
+			grid.cellsChanged(fromJ, fromI, toJ, toI);
+		}
+	}
+
+	/**
+	 * Returns pool for concurrent rendering of grid tiles, creating it if needed.
+	 *
+	 * @return rendering pool, {@code null} if {@link #renderingParallelism} is {@code 1}
+	 */
+	synchronized ForkJoinPool getRenderingPool()
+	{
+		if (renderingParallelism > 1 && renderingPool == null)
+		{
+			renderingPool = new ForkJoinPool(renderingParallelism);
+		}
+		return renderingPool;
+	}
+
+	/**
+	 * Shuts down rendering pool, if it's created. Tasks which are already submitted are completed, new pool is created
+	 * on demand, see {@link #getRenderingPool()}.
+	 */
+	synchronized void releaseRenderingPool()
+	{
+		if (renderingPool != null)
+		{
+			renderingPool.shutdown();
+			renderingPool = null;
+		}
+	}
+
+	/**
+	 * Abandons background rendering of grid, which may use outdated rendering settings, and requests repaint,
+	 * so the grid is rendered again with current settings.
+	 */
+	private void restartRendering()
+	{
+		grid.abandonCellsLayer();
+		grid.repaint();
+	}
+
+	/**
+	 * Drops cached presentation of grid (cells, grid lines and titles) and requests it's repaint.
+	 * Should be called after change of properties which affect the grid's static layer.
+	 */
+	private void presentationChanged()
+	{
+		grid.invalidateCellsImage();
+		grid.repaint();
+	}
+
+	/**
+	 * Rebuilds lookup table of cell colors and drops cached presentation.
+	 * Should be called after change of positive, negative or background color.
+	 */
+	private void colorsChanged()
+	{
+		cellColors = new CellColors(positiveColor, negativeColor, getBackground());
+		temperatureScalePanel.repaint();
+		presentationChanged();
+	}
+
+	/**
+	 * Background color is mixed with cell colors, so colors lookup table is rebuilt and cached grid presentation is dropped.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setBackground(Color background)
+	{
+		super.setBackground(background);
+		// is called by super constructor before grid creation
+		if (grid != null)
+		{
+			colorsChanged();
 		}
-		return value;
 	}
 
 	// region Accessors
@@ -276,18 +524,20 @@ public class CorrelationMatrix extends JPanel
 
 	/**
 	 * @return Two-dimensional array with correlation values. {@code NaN} means absence of correlation.
+	 * {@code null} if matrix was created with other {@link CorrelationSource}.
 	 */
-	public double[][] getCorrelations()
+	public /* Nullable */ double[][] getCorrelations()
 	{
-		return this.correlations;
+		return correlations instanceof ArrayCorrelations ? ((ArrayCorrelations) correlations).correlations : null;
 	}
 
 	/**
 	 * @return Two-dimensional array with square correlation values. {@code NaN} means absence of correlation.
+	 * {@code null} if matrix was created with other {@link CorrelationSource}.
 	 */
-	public double[][] getCorrelationsSqr()
+	public /* Nullable */ double[][] getCorrelationsSqr()
 	{
-		return this.correlationsSqr;
+		return correlations instanceof ArrayCorrelations ? ((ArrayCorrelations) correlations).correlationsSqr : null;
 	}
 
 	/**
@@ -312,6 +562,7 @@ public class CorrelationMatrix extends JPanel
 	public void setPositiveColor(Color positiveColor)
 	{
 		this.positiveColor = Objects.requireNonNull(positiveColor);
+		colorsChanged();
 	}
 
 	/**
@@ -328,6 +579,7 @@ public class CorrelationMatrix extends JPanel
 	public void setNegativeColor(Color negativeColor)
 	{
 		this.negativeColor = Objects.requireNonNull(negativeColor);
+		colorsChanged();
 	}
 
 	/**
@@ -346,6 +598,7 @@ public class CorrelationMatrix extends JPanel
 	public void setCompactCellSize(int compactCellSize)
 	{
 		this.compactCellSize = compactCellSize;
+		presentationChanged();
 	}
 
 	/**
@@ -363,6 +616,7 @@ public class CorrelationMatrix extends JPanel
 	public CorrelationMatrix setGridLinesColor(Color gridLinesColor)
 	{
 		this.gridLinesColor = Objects.requireNonNull(gridLinesColor);
+		presentationChanged();
 		return this;
 	}
 
@@ -403,6 +657,7 @@ public class CorrelationMatrix extends JPanel
 	public void setLabelsFont(Font labelsFont)
 	{
 		this.labelsFont = Objects.requireNonNull(labelsFont);
+		presentationChanged();
 	}
 
 	/**
@@ -420,6 +675,7 @@ public class CorrelationMatrix extends JPanel
 	public CorrelationMatrix setGridLinesWidth(float gridLinesWidth)
 	{
 		this.gridLinesWidth = gridLinesWidth;
+		presentationChanged();
 		return this;
 	}
 
@@ -456,6 +712,7 @@ public class CorrelationMatrix extends JPanel
 	public CorrelationMatrix setEllipseStrokeWidth(float ellipseStrokeWidth)
 	{
 		this.ellipseStrokeWidth = ellipseStrokeWidth;
+		presentationChanged();
 		return this;
 	}
 
@@ -474,6 +731,7 @@ public class CorrelationMatrix extends JPanel
 	public CorrelationMatrix setEllipseStrokeColor(Color ellipseStrokeColor)
 	{
 		this.ellipseStrokeColor = Objects.requireNonNull(ellipseStrokeColor);
+		presentationChanged();
 		return this;
 	}
 
@@ -654,6 +912,7 @@ public class CorrelationMatrix extends JPanel
 	public CorrelationMatrix setLabelsColor(Color labelsColor)
 	{
 		this.labelsColor = Objects.requireNonNull(labelsColor);
+		presentationChanged();
 		return this;
 	}
 
@@ -803,5 +1062,99 @@ public class CorrelationMatrix extends JPanel
 		return this;
 	}
 
+	/**
+	 * @return Amount of threads used to render grid cells. If {@code 1} - cells are rendered in event dispatch thread only.
+	 */
+	public int getRenderingParallelism()
+	{
+		return renderingParallelism;
+	}
+
+	/**
+	 * @param renderingParallelism Amount of threads used to render grid cells. If {@code 1} - cells are rendered in event
+	 * dispatch thread only. Is equal to amount of available processors by default.
+	 * @return {@code this}
+	 */
+	public CorrelationMatrix setRenderingParallelism(int renderingParallelism)
+	{
+		if (renderingParallelism < 1)
+		{
+			throw new IllegalArgumentException("Rendering parallelism should be positive");
+		}
+		synchronized (this)
+		{
+			this.renderingParallelism = renderingParallelism;
+			releaseRenderingPool();
+		}
+		restartRendering();
+		return this;
+	}
+
+	/**
+	 * @return Whether grid cells are rendered in background after change of size, data or presentation, while the
+	 * last rendered image is displayed scaled.
+	 */
+	public boolean isBackgroundRendering()
+	{
+		return backgroundRendering;
+	}
+
+	/**
+	 * @param backgroundRendering Whether grid cells are rendered in background after change of size, data or
+	 * presentation, while the last rendered image is displayed scaled. Requires rendering parallelism greater than
+	 * {@code 1}. Is enabled by default.
+	 * @return {@code this}
+	 */
+	public CorrelationMatrix setBackgroundRendering(boolean backgroundRendering)
+	{
+		this.backgroundRendering = backgroundRendering;
+		restartRendering();
+		return this;
+	}
+
+	/**
+	 * @return Time in milliseconds, which size of grid should be stable for before grid is laid out and rendered for
+	 * the new size.
+	 */
+	public int getResizeIdleTime()
+	{
+		return resizeIdleTime;
+	}
+
+	/**
+	 * @param resizeIdleTime Time in milliseconds, which size of grid should be stable for before grid is laid out and
+	 * rendered for the new size, for example during live resize of window. Meanwhile the last rendered image is
+	 * displayed scaled. If {@code 0} - grid is laid out and rendered for each intermediate size.
+	 * @return {@code this}
+	 */
+	public CorrelationMatrix setResizeIdleTime(int resizeIdleTime)
+	{
+		if (resizeIdleTime < 0)
+		{
+			throw new IllegalArgumentException("Resize idle time should not be negative");
+		}
+		this.resizeIdleTime = resizeIdleTime;
+		return this;
+	}
+
+	/**
+	 * @return How values of cells blocks are combined, when cells are smaller than a pixel.
+	 */
+	public CellsAggregation getCellsAggregation()
+	{
+		return cellsAggregation;
+	}
+
+	/**
+	 * @param cellsAggregation How values of cells blocks are combined, when cells are smaller than a pixel.
+	 * @return {@code this}
+	 */
+	public CorrelationMatrix setCellsAggregation(CellsAggregation cellsAggregation)
+	{
+		this.cellsAggregation = Objects.requireNonNull(cellsAggregation);
+		presentationChanged();
+		return this;
+	}
+
 	// endregion
 }
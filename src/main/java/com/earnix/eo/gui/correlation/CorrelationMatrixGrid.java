@@ -4,23 +4,32 @@ package com.earnix.eo.gui.correlation;
 import javax.swing.BorderFactory;
 import javax.swing.JPanel;
 import javax.swing.JToolTip;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.ToolTipManager;
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.event.MouseEvent;
 import java.awt.font.FontRenderContext;
-import java.awt.font.TextHitInfo;
-import java.awt.font.TextLayout;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.earnix.eo.gui.correlation.Utilities.ceil;
 import static com.earnix.eo.gui.correlation.Utilities.formatCorrelationValue;
@@ -44,7 +53,7 @@ class CorrelationMatrixGrid extends JPanel
 	/**
 	 * A proportion of label in title cell (height).
 	 */
-	private static final float LABEL_HEIGHT_PROPORTION = 0.7f;
+	static final float LABEL_HEIGHT_PROPORTION = 0.7f;
 
 	/**
 	 * Coefficient which restricts oval from squeezing too much.
@@ -57,14 +66,14 @@ class CorrelationMatrixGrid extends JPanel
 	private static final short LABEL_ABBREVIATION_LENGTH = 64;
 
 	/**
-	 * How much of component's height should take zoom area grid.
+	 * How much decimal places displayed correlation value should take.
 	 */
-	private static final float ZOOM_CELLS_PROPORTION = 0.25f;
+	private static final short CORRELATION_VALUE_DECIMAL_PLACES = 4;
 
 	/**
-	 * How much decimal places displayed correlation value should take.
+	 * Width and height in device pixels of tiles, which cells area is split into during rendering.
 	 */
-	private static final short CORRELATION_VALUE_DECIMAL_PLACES = 4;
+	private static final int TILE_SIZE = 256;
 
 	/**
 	 * Link to main component.
@@ -96,7 +105,23 @@ class CorrelationMatrixGrid extends JPanel
 	private BasicStroke ellipseStroke;
 	private final BasicStroke zoomSelectionBorderStroke;
 	private final BasicStroke zoomBorderStroke;
-	private JToolTip tooltip;
+	private GridToolTip tooltip;
+
+	/**
+	 * Indexes of data cell or title (with {@code -1} column index) which {@link #toolTipText} describes,
+	 * {@code null} if the text is not created yet or is outdated.
+	 */
+	private /* Nullable */ CellIndex toolTipIndex;
+
+	/**
+	 * Cached tooltip lines of {@link #toolTipIndex}.
+	 */
+	private String[] toolTipLines;
+
+	/**
+	 * Cached tooltip text of {@link #toolTipIndex}, which is {@link #toolTipLines} joined with {@code '\n'}.
+	 */
+	private String toolTipText;
 
 	/**
 	 * If highlight is active, contains indexes of cell which triggered it, {@code null} otherwise.
@@ -108,6 +133,114 @@ class CorrelationMatrixGrid extends JPanel
 	 */
 	/* Nullable */ Zoom zoom;
 
+	/**
+	 * Cached static layer of component: data cells, grid lines and titles. Has device resolution and covers
+	 * whole component including borders. {@code null} if not rendered yet.
+	 */
+	private /* Nullable */ BufferedImage cellsImage;
+
+	/**
+	 * Whether {@link #cellsImage} displays outdated data or presentation and should be re-rendered.
+	 */
+	private boolean cellsImageOutdated;
+
+	/**
+	 * Is incremented when static layer is invalidated, so background renderings of previous layers are abandoned.
+	 */
+	private final AtomicInteger cellsLayerGeneration = new AtomicInteger();
+
+	/**
+	 * Static layer which is being rendered in background, {@code null} if there is no such rendering.
+	 */
+	private /* Nullable */ CellsLayer pendingCellsLayer;
+
+	/**
+	 * Whether the last background rendering failed, so static layer is rendered in event dispatch thread until it
+	 * succeeds and the error, if it repeats, is reported as usual.
+	 */
+	private boolean cellsLayerFailed;
+
+	/**
+	 * Cell size {@link #cellsImage} was rendered with.
+	 */
+	private double cellsImageCellSize;
+
+	/**
+	 * Device scale {@link #cellsImage} was rendered with.
+	 */
+	private double cellsImageScale;
+
+	/**
+	 * Aggregated values, displayed when cells are smaller than a pixel. Is built on demand, {@code null} if not built yet.
+	 */
+	private /* Nullable */ ValuesPyramid valuesPyramid;
+
+	/**
+	 * Pre-rendered ellipses of main grid cells, {@code null} if not created yet.
+	 */
+	private /* Nullable */ EllipseSprites cellsEllipseSprites;
+
+	/**
+	 * Measurements of rows titles, {@code null} if not created yet.
+	 */
+	private /* Nullable */ TitleMetrics titleMetrics;
+
+	/**
+	 * Laid out titles of main grid for current labels font, {@code null} if not created yet.
+	 */
+	private /* Nullable */ LabelGlyphs labelGlyphs;
+
+	/**
+	 * Laid out zoom labels for current zoom font, {@code null} if not created yet.
+	 */
+	private /* Nullable */ LabelGlyphs zoomLabelGlyphs;
+
+	/**
+	 * Zoom models for current layout, {@code null} if not created yet.
+	 */
+	private /* Nullable */ ZoomModels zoomModels;
+
+	/**
+	 * Rendered zoom cells, {@code null} if not created yet.
+	 */
+	private /* Nullable */ ZoomTiles zoomTiles;
+
+	/**
+	 * Pre-rendered ellipses of zoom cells, {@code null} if not created yet.
+	 */
+	private /* Nullable */ EllipseSprites zoomEllipseSprites;
+
+	/**
+	 * Guards ellipse sprites caches, which are used by rendering threads.
+	 */
+	private final Object ellipseSpritesLock = new Object();
+
+	/**
+	 * Preferred size calculated by the last exact layout, {@code null} if layout should be calculated again.
+	 */
+	private /* Nullable */ Dimension layoutSize;
+
+	/**
+	 * Width available for the grid during the last exact layout.
+	 */
+	private double layoutAvailableWidth;
+
+	/**
+	 * Height available for the grid during the last exact layout.
+	 */
+	private double layoutAvailableHeight;
+
+	/**
+	 * Cell size calculated by the last exact layout.
+	 */
+	private double layoutCellSize;
+
+	/**
+	 * Is restarted on each change of available size, see {@link CorrelationMatrix#getResizeIdleTime()}. Grid is laid
+	 * out and rendered exactly when it fires.
+	 */
+	private final Timer resizeTimer;
+
 	// endregion
 
 	/**
@@ -132,6 +265,9 @@ class CorrelationMatrixGrid extends JPanel
 		zoomBorderStroke = new BasicStroke(matrix.zoomBorderWidth);
 		tooltip = new GridToolTip(matrix);
 		setBorder(BorderFactory.createLineBorder(matrix.gridBorderColor, matrix.gridBorderWidth));
+
+		resizeTimer = new Timer(matrix.resizeIdleTime, e -> finishResizing());
+		resizeTimer.setRepeats(false);
 	}
 
 	// region Painting methods
@@ -141,6 +277,11 @@ class CorrelationMatrixGrid extends JPanel
 	 * graphical context. Calculates all required sizes and coordinates depending on current {@link #labelsFont} and
 	 * {@link #cellSize} properties (as well as current bounds of component). Font size and cell size are set by
 	 * {@link #getPreferredSize()}.
+	 * <br>
+	 * Static layer (data cells, grid lines and titles) is taken from {@link #cellsImage}, which is re-rendered only
+	 * if it was invalidated or doesn't match current sizes. Highlights and zoom are painted over it.
+	 * If background rendering is enabled, outdated image is displayed scaled to current size until the new one is
+	 * rendered in background. While the grid is being resized, outdated image is displayed scaled without rendering.
 	 *
 	 * @param g graphical context
 	 */
@@ -152,58 +293,486 @@ class CorrelationMatrixGrid extends JPanel
 		g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 		super.paintComponent(g);
 
-		// translating to be not aware of border during calculations
-		// noinspection SuspiciousNameCombination
-		g2d.translate(matrix.gridBorderWidth, matrix.gridBorderWidth);
 		cellsWidth = getWidth() - matrix.gridBorderWidth * 2;
 		cellsHeight = getHeight() - matrix.gridBorderWidth * 2;
 
-		// Painting cells and highlights. 
-		// In case of compact mode - highlights are drawn over cells since cells are 
-		// not assumed to be transparent.
-		if (isCompact())
+		// painting cached cells, grid lines and titles
+		Rectangle clip = g2d.getClipBounds();
+		double scale = g2d.getTransform().getScaleX();
+		boolean partial = clip != null && !clip.contains(0, 0, getWidth(), getHeight());
+		if (isCellsImageValid(scale))
 		{
-			paintCells(g2d);
-			paintHighlights(g2d);
+			if (pendingCellsLayer != null)
+			{
+				// layer is being rendered for another size, which is not actual anymore
+				abandonCellsLayer();
+			}
+			paintCellsImage(g2d, clip, scale);
+		}
+		else if (cellsImage != null && resizeTimer.isRunning())
+		{
+			// image is rendered when size is stable, see getPreferredSize()
+			paintCellsImagePreview(g2d);
+		}
+		else if (cellsImage != null && isBackgroundRendering() && !cellsLayerFailed)
+		{
+			renderCellsImageInBackground(scale);
+			paintCellsImagePreview(g2d);
+		}
+		else if (partial)
+		{
+			// small region is painted directly, image will be rendered during next full repaint
+			CellsLayer layer = new CellsLayer(scale, false);
+			layer.paint(g2d);
+			adoptCaches(layer);
 		}
 		else
 		{
-			paintHighlights(g2d);
-			paintCells(g2d);
+			CellsLayer layer = new CellsLayer(scale, false);
+			setCellsImage(layer, layer.render());
+			paintCellsImage(g2d, clip, scale);
 		}
 
-		// painting vertical grid lines
-		g2d.setColor(matrix.gridLinesColor);
-		g2d.setStroke(new BasicStroke(matrix.gridLinesWidth));
-		for (int i = 1; i <= matrix.length(); i++)
+		// translating to be not aware of border during calculations
+		// noinspection SuspiciousNameCombination
+		g2d.translate(matrix.gridBorderWidth, matrix.gridBorderWidth);
+
+		// Highlights are drawn over cells, since highlight color is required to be transparent.
+		paintHighlights(g2d);
+
+		// painting zoom
+		paintZoom(g2d);
+
+		g2d.translate(-matrix.gridBorderWidth, -matrix.gridBorderWidth);
+	}
+
+	/**
+	 * Copies the part of {@link #cellsImage} which intersects given clip into given graphical context.
+	 *
+	 * @param g2d component's graphical context
+	 * @param clip clip bounds of graphical context, {@code null} if whole component should be painted
+	 * @param scale device scale {@link #cellsImage} was rendered with
+	 */
+	private void paintCellsImage(Graphics2D g2d, /* Nullable */ Rectangle clip, double scale)
+	{
+		Rectangle area = new Rectangle(0, 0, getWidth(), getHeight());
+		if (clip != null)
 		{
-			int x = ceil(cellsWidth - cellSize * i);
-			g2d.drawLine(x, 0, x, ceil(cellsHeight));
+			area = area.intersection(clip);
 		}
+		if (!area.isEmpty())
+		{
+			g2d.drawImage(cellsImage, area.x, area.y, area.x + area.width, area.y + area.height,
+					(int) (area.x * scale), (int) (area.y * scale),
+					ceil((area.x + area.width) * scale), ceil((area.y + area.height) * scale), null);
+		}
+	}
 
-		// painting horizontal grid lines
-		for (int i = 1; i <= matrix.length() - 1; i++)
+	/**
+	 * Checks whether {@link #cellsImage} may be reused for painting with current sizes and given device scale.
+	 *
+	 * @param scale device scale of graphical context
+	 * @return {@code true} if cached image is up to date
+	 */
+	private boolean isCellsImageValid(double scale)
+	{
+		return cellsImage != null && !cellsImageOutdated
+				&& cellsImage.getWidth() == ceil(getWidth() * scale)
+				&& cellsImage.getHeight() == ceil(getHeight() * scale)
+				&& cellsImageCellSize == cellSize;
+	}
+
+	/**
+	 * Paints outdated {@link #cellsImage} scaled to current component's size, while the up to date image is rendered
+	 * in background.
+	 *
+	 * @param g2d component's graphical context
+	 */
+	private void paintCellsImagePreview(Graphics2D g2d)
+	{
+		Graphics2D previewGraphics = (Graphics2D) g2d.create();
+		try
+		{
+			previewGraphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			previewGraphics.drawImage(cellsImage, 0, 0, getWidth(), getHeight(), null);
+		}
+		finally
+		{
+			previewGraphics.dispose();
+		}
+	}
+
+	/**
+	 * Sets rendered static layer as {@link #cellsImage}.
+	 *
+	 * @param layer rendered layer
+	 * @param image image the layer was rendered into
+	 */
+	private void setCellsImage(CellsLayer layer, BufferedImage image)
+	{
+		cellsImage = image;
+		cellsImageCellSize = layer.cellSize;
+		cellsImageScale = layer.scale;
+		cellsImageOutdated = false;
+		cellsLayerFailed = false;
+		adoptCaches(layer);
+	}
+
+	/**
+	 * Keeps caches, which were created during rendering of given layer, for the next layers.
+	 *
+	 * @param layer rendered layer
+	 */
+	private void adoptCaches(CellsLayer layer)
+	{
+		if (valuesPyramid == null && layer.correlations == matrix.correlations)
+		{
+			valuesPyramid = layer.valuesPyramid;
+		}
+		labelGlyphs = layer.labelGlyphs;
+	}
+
+	/**
+	 * Returns whether static layer is rendered in background, see {@link CorrelationMatrix#isBackgroundRendering()}.
+	 *
+	 * @return {@code true} if static layer is rendered in background
+	 */
+	private boolean isBackgroundRendering()
+	{
+		return matrix.backgroundRendering && matrix.getRenderingPool() != null;
+	}
+
+	/**
+	 * Starts rendering of static layer with current sizes and data in {@link CorrelationMatrix#getRenderingPool()},
+	 * unless it is already being rendered. Rendered image replaces {@link #cellsImage} in event dispatch thread,
+	 * if the layer wasn't abandoned before. If rendering fails, for example because the pool is shut down or there
+	 * is not enough memory for the image, the layer is rendered in event dispatch thread during next painting.
+	 *
+	 * @param scale device scale
+	 */
+	private void renderCellsImageInBackground(double scale)
+	{
+		if (pendingCellsLayer != null && pendingCellsLayer.matches(scale))
+		{
+			return;
+		}
+		abandonCellsLayer();
+		CellsLayer layer = new CellsLayer(scale, true);
+		pendingCellsLayer = layer;
+		layer.pool.execute(() -> {
+			BufferedImage image;
+			try
+			{
+				image = layer.render();
+			}
+			catch (RuntimeException | Error e)
+			{
+				SwingUtilities.invokeLater(() -> cellsLayerFailed(layer));
+				return;
+			}
+			if (!layer.isAbandoned())
+			{
+				SwingUtilities.invokeLater(() -> cellsLayerRendered(layer, image));
+			}
+		});
+	}
+
+	/**
+	 * Displays image of given layer rendered in background, if the layer is still up to date.
+	 *
+	 * @param layer rendered layer
+	 * @param image image the layer was rendered into
+	 */
+	private void cellsLayerRendered(CellsLayer layer, BufferedImage image)
+	{
+		if (layer == pendingCellsLayer)
+		{
+			pendingCellsLayer = null;
+			// if size was changed during rendering, the image is dropped and layer is rendered again
+			if (layer.matches(layer.scale))
+			{
+				setCellsImage(layer, image);
+			}
+			repaint();
+		}
+	}
+
+	/**
+	 * Stops waiting for given layer, which failed to render in background, so it is rendered in event dispatch thread
+	 * during next painting.
+	 *
+	 * @param layer failed layer
+	 */
+	private void cellsLayerFailed(CellsLayer layer)
+	{
+		if (layer == pendingCellsLayer)
+		{
+			pendingCellsLayer = null;
+			cellsLayerFailed = true;
+			repaint();
+		}
+	}
+
+	/**
+	 * Abandons static layer which is being rendered in background, if any, so its rendering is stopped and its image
+	 * is not displayed. Should be called after change of rendering settings, see
+	 * {@link CorrelationMatrix#setRenderingParallelism(int)}.
+	 */
+	void abandonCellsLayer()
+	{
+		cellsLayerGeneration.incrementAndGet();
+		pendingCellsLayer = null;
+	}
+
+	/**
+	 * Drops cached static layer (data cells, grid lines and titles), so it will be re-rendered during next painting.
+	 * Should be called after change of data or presentational properties which affect the static layer.
+	 */
+	void invalidateCellsImage()
+	{
+		cellsImageOutdated = true;
+		layoutSize = null;
+		abandonCellsLayer();
+		ellipseStroke = new BasicStroke(matrix.ellipseStrokeWidth);
+		synchronized (ellipseSpritesLock)
+		{
+			cellsEllipseSprites = null;
+			zoomEllipseSprites = null;
+		}
+		zoomTiles = null;
+	}
+
+	/**
+	 * Updates presentation of changed data cells: aggregated values, the part of {@link #cellsImage} which displays
+	 * the cells, and requests repaint of this part and zoom, if it displays any of the cells.
+	 * Should be called in event dispatch thread.
+	 *
+	 * @param fromI index of the first changed column
+	 * @param fromJ index of the first changed row
+	 * @param toI index of the column after the last changed one
+	 * @param toJ index of the row after the last changed one
+	 */
+	void cellsChanged(int fromI, int fromJ, int toI, int toJ)
+	{
+		// zoom and tooltips display diagonal cells too
+		if (zoomTiles != null)
+		{
+			zoomTiles.invalidate(fromI, fromJ, toI, toJ);
+		}
+		toolTipIndex = null;
+		if (zoom != null && fromI < zoom.i + zoom.length && zoom.i < toI && fromJ < zoom.j + zoom.length
+				&& zoom.j < toJ)
+		{
+			repaint(getZoomAreaBounds(zoom));
+		}
+
+		if (fromI >= toJ - 1)
+		{
+			// there are no changed cells below the diagonal
+			return;
+		}
+		if (valuesPyramid != null)
+		{
+			valuesPyramid.update(matrix.correlations, fromI, fromJ, toI, toJ);
+		}
+
+		// cells bounds with margin for grid lines and aggregated pixels, which may cover adjacent cells
+		double cellsStart = matrix.gridBorderWidth + cellsWidth - cellSize * matrix.length();
+		int margin = ceil(matrix.gridLinesWidth) + 2;
+		int x = (int) Math.floor(cellsStart + fromI * cellSize) - margin;
+		int y = (int) Math.floor(matrix.gridBorderWidth + fromJ * cellSize) - margin;
+		int right = ceil(cellsStart + toI * cellSize) + margin;
+		int bottom = ceil(matrix.gridBorderWidth + toJ * cellSize) + margin;
+		Rectangle dirty = new Rectangle(x, y, right - x, bottom - y).intersection(new Rectangle(getSize()));
+		if (dirty.isEmpty())
+		{
+			return;
+		}
+
+		if (pendingCellsLayer != null)
+		{
+			// background rendering may have already read changed cells, so it is started again if needed
+			abandonCellsLayer();
+		}
+		if (isCellsImageValid(cellsImageScale))
+		{
+			CellsLayer layer = new CellsLayer(cellsImageScale, false);
+			layer.render(cellsImage, dirty);
+			adoptCaches(layer);
+		}
+		repaint(dirty);
+	}
+
+	/**
+	 * Drops presentation of replaced data and requests repaint. Highlight and zoom are kept if amount of data rows
+	 * is not changed, zoom labels are updated if titles are changed. Should be called in event dispatch thread.
+	 *
+	 * @param lengthChanged whether amount of data rows is changed
+	 * @param titlesChanged whether titles are changed
+	 */
+	void dataChanged(boolean lengthChanged, boolean titlesChanged)
+	{
+		cellsImageOutdated = true;
+		layoutSize = null;
+		abandonCellsLayer();
+		valuesPyramid = null;
+		zoomTiles = null;
+		toolTipIndex = null;
+		if (lengthChanged)
+		{
+			highlightIndex = null;
+			zoom = null;
+		}
+		else if (titlesChanged && zoom != null)
+		{
+			zoom = createZoom(new CellIndex(zoom.i + zoom.length / 2, zoom.j + zoom.length / 2));
+		}
+		repaint();
+	}
+
+	/**
+	 * Returns cache of ellipse sprites for given cell size and device scale. Main grid and zoom cells
+	 * have separate caches, which are re-created if sizes are changed. May be called from any thread.
+	 *
+	 * @param size cell width and height
+	 * @param scale amount of device pixels in one unit of cell coordinates
+	 * @param zoomCell whether sprites are painted in zoom
+	 * @return sprites cache, {@code null} if cells are too large to be cached
+	 */
+	private EllipseSprites getEllipseSprites(double size, double scale, boolean zoomCell)
+	{
+		if (size * scale > EllipseSprites.MAX_SIZE)
+		{
+			return null;
+		}
+		synchronized (ellipseSpritesLock)
+		{
+			EllipseSprites sprites = zoomCell ? zoomEllipseSprites : cellsEllipseSprites;
+			if (sprites == null || !sprites.matches(size, scale))
+			{
+				double padding = matrix.ellipseStrokeWidth / 2 + 1;
+				sprites = new EllipseSprites(size, scale, padding, this::paintCellShape);
+				if (zoomCell)
+				{
+					zoomEllipseSprites = sprites;
+				}
+				else
+				{
+					cellsEllipseSprites = sprites;
+				}
+			}
+			return sprites;
+		}
+	}
+
+	/**
+	 * Returns cache of rendered zoom cells for given zoom cell size and device scale, re-creating it if data or sizes
+	 * were changed.
+	 *
+	 * @param size zoom cell width and height
+	 * @param scale amount of device pixels in one unit of cell coordinates
+	 * @return tiles cache
+	 */
+	private ZoomTiles getZoomTiles(double size, double scale)
+	{
+		if (zoomTiles == null || !zoomTiles.matches(matrix.correlations, size, scale, isCompact()))
+		{
+			zoomTiles = new ZoomTiles(matrix.correlations, size, scale, isCompact(), matrix.getBackground(),
+					(g2d, cell) -> paintCell(g2d, cell, true));
+		}
+		return zoomTiles;
+	}
+
+	/**
+	 * Requests repaint of regions which were covered by highlight and zoom before interaction, and are covered by
+	 * current ones. Should be called in event dispatch thread after change of {@link #highlightIndex} or {@link #zoom}.
+	 * Repaint manager coalesces the requests, so the grid is painted once per frame.
+	 *
+	 * @param previousHighlightIndex highlight index before interaction, {@code null} if there was no highlight
+	 * @param previousZoom zoom model before interaction, {@code null} if there was no zoom
+	 */
+	void interactionChanged(/* Nullable */ CellIndex previousHighlightIndex, /* Nullable */ Zoom previousZoom)
+	{
+		getInteractionRegions(previousHighlightIndex, previousZoom).forEach(this::repaint);
+	}
+
+	/**
+	 * Returns regions which were covered by highlight and zoom before interaction, and are covered by current ones.
+	 * Package access for testing purpose.
+	 *
+	 * @param previousHighlightIndex highlight index before interaction, {@code null} if there was no highlight
+	 * @param previousZoom zoom model before interaction, {@code null} if there was no zoom
+	 * @return regions in component's coordinates
+	 */
+	List<Rectangle> getInteractionRegions(/* Nullable */ CellIndex previousHighlightIndex,
+			/* Nullable */ Zoom previousZoom)
+	{
+		List<Rectangle> regions = new ArrayList<>();
+		if (previousHighlightIndex != highlightIndex)
+		{
+			addHighlightBounds(regions, previousHighlightIndex);
+			addHighlightBounds(regions, highlightIndex);
+		}
+		if (previousZoom != zoom)
+		{
+			addZoomBounds(regions, previousZoom);
+			addZoomBounds(regions, zoom);
+		}
+		return regions;
+	}
+
+	/**
+	 * Adds bounds of highlight stripes of given cell to given regions.
+	 *
+	 * @param regions regions in component's coordinates
+	 * @param index highlight index, {@code null} if there is no highlight
+	 */
+	private void addHighlightBounds(List<Rectangle> regions, /* Nullable */ CellIndex index)
+	{
+		if (index != null)
 		{
-			int y = ceil(i * cellSize);
-			g2d.drawLine(0, y, ceil(cellsWidth), y);
+			// stripes bounds with margin for rounding, see paintHighlights(Graphics2D)
+			int border = matrix.gridBorderWidth;
+			int y = (int) Math.floor(border + index.j * cellSize) - 1;
+			regions.add(new Rectangle(border, y, ceil(cellsWidth) + 1, ceil(cellSize) + 3));
+			int x = (int) Math.floor(border + cellsWidth - (matrix.length() - index.i) * cellSize) - 1;
+			regions.add(new Rectangle(x, border, ceil(cellSize) + 3, ceil(cellsHeight) + 1));
 		}
+	}
 
-		// painting rows titles
-		double labelMargin = (1 - LABEL_HEIGHT_PROPORTION) * cellSize / 2;
-		g2d.setColor(matrix.labelsColor);
-		g2d.setFont(labelsFont);
-		for (int i = 0; i < matrix.length(); i++)
+	/**
+	 * Adds bounds of selection border and zoom area of given zoom to given regions.
+	 *
+	 * @param regions regions in component's coordinates
+	 * @param zoom zoom model, {@code null} if there is no zoom
+	 */
+	private void addZoomBounds(List<Rectangle> regions, /* Nullable */ Zoom zoom)
+	{
+		if (zoom != null)
 		{
-			String label = Utilities.abbreviate(matrix.titles.get(i), LABEL_ABBREVIATION_LENGTH);
-			int x = ceil(labelMargin);
-			int y = ceil((i + 1) * cellSize - labelMargin);
-			g2d.drawString(label, x, y);
+			// selection bounds with margin for stroke, see paintZoom(Graphics2D)
+			int margin = ceil(matrix.zoomSelectionBorderWidth) + 1;
+			int x = (int) (cellsWidth - (matrix.length() - zoom.i) * cellSize) + matrix.gridBorderWidth - margin;
+			int y = (int) (zoom.j * cellSize) + matrix.gridBorderWidth - margin;
+			int size = (int) zoom.zoomSelectionSize + margin * 2 + 1;
+			regions.add(new Rectangle(x, y, size, size));
+			regions.add(getZoomAreaBounds(zoom));
 		}
+	}
 
-		// painting zoom
-		paintZoom(g2d);
-
-		g2d.translate(-matrix.gridBorderWidth, -matrix.gridBorderWidth);
+	/**
+	 * Returns bounds of area of given zoom, including its border.
+	 *
+	 * @param zoom zoom model
+	 * @return bounds in component's coordinates
+	 */
+	private Rectangle getZoomAreaBounds(Zoom zoom)
+	{
+		int margin = ceil(matrix.zoomBorderWidth) + 1;
+		return new Rectangle((int) Math.floor(matrix.gridBorderWidth + zoom.x) - margin,
+				(int) Math.floor(matrix.gridBorderWidth + zoom.y) - margin,
+				ceil(zoom.width) + margin * 2 + 1, ceil(zoom.height) + margin * 2 + 1);
 	}
 
 	/**
@@ -236,59 +805,52 @@ class CorrelationMatrixGrid extends JPanel
 	}
 
 	/**
-	 * Creates and paints grid cells content into give graphical context.
-	 * Skips diagonal cells and cells over the diagonal.
+	 * Paints given cell content into given graphical context. Depending on current display mode
+	 * (@link {@link #isCompact()}), cell is draws as rotated squeezed ellipse or just rectangle.
+	 * Figure is filled with interpolated color. Cells with {@code NaN} values are skipped.
+	 * Ellipses are drawn from {@link EllipseSprites} cache, unless they are too large.
 	 *
 	 * @param g2d component's graphical context
+	 * @param cell cell model
+	 * @param zoomCell whether cell is painted in zoom
 	 */
-	private void paintCells(Graphics2D g2d)
+	private void paintCell(Graphics2D g2d, Cell cell, boolean zoomCell)
 	{
-		g2d.setStroke(ellipseStroke);
-		for (int i = 0; i < matrix.length(); i++)
+		// NaN cell should not be displayed
+		if (Double.isNaN(cell.value))
 		{
-			// painting cells only below the diagonal
-			for (int j = i + 1; j < matrix.length(); j++)
+			return;
+		}
+
+		// drawing pre-rendered ellipse if possible
+		if (!cell.compact)
+		{
+			EllipseSprites sprites = getEllipseSprites(cell.size, g2d.getTransform().getScaleX(), zoomCell);
+			if (sprites != null)
 			{
-				Cell cell = createCell(i, j);
-				paintCell(g2d, cell);
+				sprites.paint(g2d, cell);
+				return;
 			}
 		}
+		paintCellShape(g2d, cell);
 	}
 
 	/**
-	 * Paints given cell content into given graphical context. Depending on current display mode
-	 * (@link {@link #isCompact()}), cell is draws as rotated squeezed ellipse or just rectangle.
-	 * Figure is filled with interpolated color. Cells with {@code NaN} values are skipped.
+	 * Paints shape of given cell, not {@code NaN}, into given graphical context. Is used to render ellipse sprites,
+	 * see {@link #paintCell(Graphics2D, Cell, boolean)}. Package access for testing purpose.
 	 *
-	 * @param g2d component's graphical context
+	 * @param g2d graphical context
 	 * @param cell cell model
 	 */
-	private void paintCell(Graphics2D g2d, Cell cell)
+	void paintCellShape(Graphics2D g2d, Cell cell)
 	{
-		// NaN cell should not be displayed
-		if (Double.isNaN(cell.value))
-		{
-			return;
-		}
-
 		// preparing shape properties
 		double margin = cell.size * (1 - CIRCLE_HEIGHT_PROPORTION) / 2;
 		double radiusY = cell.size - margin * 2;
 		double radiusX = radiusY * (1.0 - Math.abs(cell.value) * SQUEEZE_COEFFICIENT);
-		Color fillColor;
-		double rotation;
-		if (cell.value > 0)
-		{
-			fillColor = matrix.positiveColor;
-			rotation = Math.PI / 4;
-		}
-		else
-		{
-			fillColor = matrix.negativeColor;
-			rotation = -Math.PI / 4;
-		}
-		// interpolating (mixing) fill color between main color (positive or negative) and background color
-		g2d.setColor(Utilities.interpolateColor(fillColor, matrix.getBackground(), Math.abs(cell.value)));
+		double rotation = cell.value > 0 ? Math.PI / 4 : -Math.PI / 4;
+		// taking fill color interpolated between main color (positive or negative) and background color
+		g2d.setColor(matrix.cellColors.getColor(cell.value));
 
 		// Ceiling coordinates to avoid resize flickering and painting cell
 		if (!cell.compact)
@@ -331,6 +893,15 @@ class CorrelationMatrixGrid extends JPanel
 			int selectionY = (int) (zoom.j * cellSize);
 			g2d.drawRect(selectionX, selectionY, (int) (zoom.zoomSelectionSize), (int) (zoom.zoomSelectionSize));
 
+			// zoom area is skipped if it doesn't intersect painted region
+			Rectangle clip = g2d.getClipBounds();
+			Rectangle area = getZoomAreaBounds(zoom);
+			area.translate(-matrix.gridBorderWidth, -matrix.gridBorderWidth);
+			if (clip != null && !clip.intersects(area))
+			{
+				return;
+			}
+
 			// clearing zoom area
 			g2d.setBackground(matrix.getBackground());
 			g2d.setFont(zoom.font);
@@ -340,29 +911,11 @@ class CorrelationMatrixGrid extends JPanel
 			int height = ceil(zoom.height);
 			g2d.clearRect(x, y, width, height);
 
-			// painting cells in zoom area
-			g2d.setStroke(ellipseStroke);
+			// drawing cells in zoom area from cached tiles
 			double cellsStartX = zoom.x + zoom.width - zoom.cellsSize;
 			double cellsStartY = zoom.y + zoom.height - zoom.cellsSize;
-			for (int l = 0; l < zoom.length; l++)
-			{
-				for (int m = 0; m < zoom.length; m++)
-				{
-					int i = zoom.i + l;
-					int j = zoom.j + m;
-					if (i < j) // painting cells only below the diagonal
-					{
-						// creating and painting zoom grid cell
-						Cell cell = new Cell();
-						cell.x = (cellsStartX + l * zoom.cellSize);
-						cell.y = (cellsStartY + m * zoom.cellSize);
-						cell.compact = isCompact();
-						cell.size = zoom.cellSize;
-						cell.value = matrix.getValue(i, j);
-						paintCell(g2d, cell);
-					}
-				}
-			}
+			getZoomTiles(zoom.cellSize, g2d.getTransform().getScaleX())
+					.paint(g2d, zoom.i, zoom.j, zoom.length, cellsStartX, cellsStartY, matrix.getRenderingPool());
 
 			// painting grid in zoom area
 			g2d.setColor(matrix.gridLinesColor);
@@ -387,16 +940,15 @@ class CorrelationMatrixGrid extends JPanel
 
 			// painting labels in zoom area grid
 			g2d.setColor(matrix.labelsColor);
+			zoomLabelGlyphs = getLabelGlyphs(zoomLabelGlyphs, zoom.font, g2d);
 			for (int l = 0; l < zoom.length; l++)
 			{
 				// painting horizontal label
-				String label = Utilities.abbreviate(zoom.horizontalLabels.get(l), LABEL_ABBREVIATION_LENGTH);
 				int labelX = ceil(zoom.x + zoom.labelsMargin);
 				int labelY = ceil(zoom.height - zoom.cellsSize + zoom.cellSize * (l + 1) - zoom.labelsMargin);
-				g2d.drawString(label, labelX, labelY);
+				zoomLabelGlyphs.draw(g2d, zoom.horizontalLabels.get(l), labelX, labelY);
 
 				// painting vertical label
-				label = Utilities.abbreviate(zoom.verticalLabels.get(l), LABEL_ABBREVIATION_LENGTH);
 				AffineTransform oldTransform = g2d.getTransform();
 				AffineTransform transform = (AffineTransform) oldTransform.clone();
 				double rotationX = zoom.x + zoom.horizontalLabelsWidth + (l + 1) * zoom.cellSize;
@@ -404,7 +956,8 @@ class CorrelationMatrixGrid extends JPanel
 				double rotationY = zoom.verticalLabelsWidth;
 				transform.rotate(-Math.PI / 2, rotationX, rotationY);
 				g2d.setTransform(transform);
-				g2d.drawString(label, ceil(rotationX + zoom.labelsMargin), ceil(rotationY - zoom.labelsMargin));
+				zoomLabelGlyphs.draw(g2d, zoom.verticalLabels.get(l), ceil(rotationX + zoom.labelsMargin),
+						ceil(rotationY - zoom.labelsMargin));
 				g2d.setTransform(oldTransform);
 			}
 
@@ -416,7 +969,6 @@ class CorrelationMatrixGrid extends JPanel
 	}
 
 	// endregion
-
 	/**
 	 * Creates correlation cell model with pre-calculated coordinates for given data coordinates.
 	 *
@@ -443,52 +995,19 @@ class CorrelationMatrixGrid extends JPanel
 	 */
 	Zoom createZoom(CellIndex coordinates)
 	{
-		Zoom zoom = new Zoom();
-
 		// zooming defined amount of cells, or less, if there is no so much cells.
-		zoom.length = Math.min(matrix.zoomLength, matrix.length());
-		zoom.zoomSelectionSize = zoom.length * cellSize;
-
-		// trying to zoom area with initiator cell at center, shifting if is not possible
-		zoom.i = Math.min(Math.max(coordinates.i - zoom.length / 2, 0), matrix.length() - zoom.length);
-		zoom.j = Math.min(Math.max(coordinates.j - zoom.length / 2, 0), matrix.length() - zoom.length);
-
-		// entry point for sizes calculation is the proportion of zoom grid with main grid's height
-		zoom.cellsSize = cellsHeight * ZOOM_CELLS_PROPORTION;
-		zoom.cellSize = zoom.cellsSize / zoom.length;
-
-		// gathering, measuring and abbreviating (if needed) horizontal labels
-		zoom.labelsMargin = zoom.cellSize * (1 - LABEL_HEIGHT_PROPORTION) / 2;
-		zoom.font = matrix.labelsFont.deriveFont((float) zoom.cellSize * LABEL_HEIGHT_PROPORTION);
-		zoom.horizontalLabels = new ArrayList<>(matrix.titles.subList(zoom.j, zoom.j + zoom.length));
-		zoom.horizontalLabelsWidth = getLabelsWidth(zoom.horizontalLabels, zoom.font) + zoom.labelsMargin * 2;
-
-		// ensuring labels to fit component's size
-		double maxHorizontalLabelsWidth = cellsWidth - zoom.cellsSize - 2 * zoom.labelsMargin;
-		if (zoom.horizontalLabelsWidth > maxHorizontalLabelsWidth)
-		{
-			abbreviate(zoom.horizontalLabels, zoom.font, maxHorizontalLabelsWidth);
-			zoom.horizontalLabelsWidth = maxHorizontalLabelsWidth;
-		}
-
-		// gathering, measuring and abbreviating (if needed) vertical labels
-		zoom.verticalLabels = new ArrayList<>(matrix.titles.subList(zoom.i, zoom.i + zoom.length));
-		zoom.verticalLabelsWidth = getLabelsWidth(zoom.verticalLabels, zoom.font) + zoom.labelsMargin * 2;
-
-		// ensuring labels to fit component's size
-		double maxVerticalLabelsWidth = cellsHeight - zoom.cellsSize;
-		if (zoom.verticalLabelsWidth > maxVerticalLabelsWidth)
+		int length = Math.min(matrix.zoomLength, matrix.length());
+		TitleMetrics titleMetrics = getTitleMetrics();
+		if (zoomModels == null || !zoomModels.matches(titleMetrics, length, cellSize, cellsWidth, cellsHeight))
 		{
-			abbreviate(zoom.verticalLabels, zoom.font, maxVerticalLabelsWidth);
-			zoom.verticalLabelsWidth = maxVerticalLabelsWidth;
+			zoomModels = new ZoomModels(titleMetrics, matrix.labelsFont, this::getFontMetrics, length, cellSize,
+					cellsWidth, cellsHeight);
 		}
 
-		zoom.width = zoom.horizontalLabelsWidth + zoom.cellsSize;
-		zoom.height = zoom.verticalLabelsWidth + zoom.cellsSize;
-		zoom.x = cellsWidth - zoom.width;
-		zoom.y = 0;
-
-		return zoom;
+		// trying to zoom area with initiator cell at center, shifting if is not possible
+		int i = Math.min(Math.max(coordinates.i - length / 2, 0), matrix.length() - length);
+		int j = Math.min(Math.max(coordinates.j - length / 2, 0), matrix.length() - length);
+		return zoomModels.get(i, j);
 	}
 
 	/**
@@ -503,7 +1022,8 @@ class CorrelationMatrixGrid extends JPanel
 	}
 
 	/**
-	 * Cancels this component's registration in tooltip manager.
+	 * Cancels this component's registration in tooltip manager. Stops background rendering and resizing, and releases
+	 * rendering pool, which is created again on demand if the component is displayed again.
 	 * {@inheritDoc}
 	 */
 	@Override
@@ -512,6 +1032,10 @@ class CorrelationMatrixGrid extends JPanel
 		super.removeNotify();
 		ToolTipManager.sharedInstance().unregisterComponent(this);
 
+		abandonCellsLayer();
+		resizeTimer.stop();
+		layoutSize = null;
+		matrix.releaseRenderingPool();
 	}
 
 	/**
@@ -523,6 +1047,8 @@ class CorrelationMatrixGrid extends JPanel
 	 * Afterwards, set's components {@link #cellSize}, which will be used during painting.
 	 * Font sizing not always is proportional, so at the final step this method checks how accurate labels are matching their space and modifies
 	 * {@link #cellSize} according to the result (and sets component's {@link #labelsFont}, which will be used during painting).
+	 * <br>
+	 * While available size is changing, the last exact layout is scaled instead, see {@link #getResizingSize}.
 	 *
 	 * @return the preferred size for this correlation matrix grid
 	 */
@@ -533,13 +1059,19 @@ class CorrelationMatrixGrid extends JPanel
 				matrix.getWidth() - matrix.temperatureScalePanel.getPreferredSize().width - matrix.gridMargin * 2;
 		double availableHeight = matrix.getHeight() - matrix.getGridMargin() * 2;
 		double borders = matrix.gridBorderWidth * 2;
+		Dimension resizingSize = getResizingSize(availableWidth, availableHeight, borders);
+		if (resizingSize != null)
+		{
+			return resizingSize;
+		}
 
 		// calculating title cell proportion for synthetic  font height
 
 
 		double testHeight = Math.min(availableHeight - borders, availableWidth - borders);
 		double testFontHeight = (testHeight / matrix.length());
-		double testLabelWidth = getLabelsWidth(matrix.titles, matrix.getFont().deriveFont((float) testFontHeight));
+		TitleMetrics titleMetrics = getTitleMetrics();
+		double testLabelWidth = titleMetrics.getApproximateMaxWidth((float) testFontHeight);
 		double testLabelMargin = testFontHeight * (1 - LABEL_HEIGHT_PROPORTION) / 2;
 		double labelCellProportion = (testLabelWidth + testLabelMargin * 2) / (testFontHeight + testLabelMargin * 2);
 
@@ -584,7 +1116,7 @@ class CorrelationMatrixGrid extends JPanel
 
 		// Now label width becomes an entry point for calculations.
 		// Correcting cell size if label is too long because of not proportional font scaling.
-		double labelWidth = getLabelsWidth(matrix.titles, labelsFont);
+		double labelWidth = titleMetrics.getMaxWidth(labelsFont);
 		double labelMargins = cellSize * (1 - LABEL_HEIGHT_PROPORTION);
 		double error = availableWidth - borders - cellSize * matrix.length() - labelWidth - labelMargins;
 		// to get less jerking - only reducing cell, not enlarging 
@@ -596,19 +1128,84 @@ class CorrelationMatrixGrid extends JPanel
 		{
 			int width = (int) availableWidth;
 			int height = (int) (matrix.length() * cellSize + borders);
-			return new Dimension(width, height);
+			layoutSize = new Dimension(width, height);
 		}
 		else
 		{
 			int width = (int) (cellSize * matrix.length() + labelWidth + labelMargins + borders);
 			int height = (int) availableHeight;
-			return new Dimension(width, height);
+			layoutSize = new Dimension(width, height);
+		}
+		layoutAvailableWidth = availableWidth;
+		layoutAvailableHeight = availableHeight;
+		layoutCellSize = cellSize;
+		return new Dimension(layoutSize);
+	}
+
+	/**
+	 * If available size differs from the size of the last exact layout, and there is rendered image to display
+	 * meanwhile, restarts {@link #resizeTimer} and returns the last exact layout scaled to fit available size.
+	 * Labels are not measured, {@link #cellSize} is scaled as well, so highlights are painted over the scaled image.
+	 *
+	 * @param availableWidth width available for the grid
+	 * @param availableHeight height available for the grid
+	 * @param borders width of both borders
+	 * @return scaled preferred size, {@code null} if exact layout should be calculated
+	 */
+	private /* Nullable */ Dimension getResizingSize(double availableWidth, double availableHeight, double borders)
+	{
+		if (layoutSize == null || cellsImage == null || matrix.resizeIdleTime == 0
+				|| (availableWidth == layoutAvailableWidth && availableHeight == layoutAvailableHeight))
+		{
+			return null;
 		}
+		double scale = Math.min((availableWidth - borders) / (layoutSize.width - borders),
+				(availableHeight - borders) / (layoutSize.height - borders));
+		if (!(scale > 0) || Double.isInfinite(scale))
+		{
+			return null;
+		}
+
+		// rendering for intermediate size is useless
+		abandonCellsLayer();
+		resizeTimer.setInitialDelay(matrix.resizeIdleTime);
+		resizeTimer.restart();
+
+		cellSize = layoutCellSize * scale;
+		int width = (int) ((layoutSize.width - borders) * scale + borders);
+		int height = (int) ((layoutSize.height - borders) * scale + borders);
+		return new Dimension(width, height);
+	}
+
+	/**
+	 * Returns whether the grid is being resized, so the last exact layout is displayed scaled.
+	 * Package access for testing purpose.
+	 *
+	 * @return {@code true} if {@link #resizeTimer} is running
+	 */
+	boolean isResizing()
+	{
+		return resizeTimer.isRunning();
+	}
+
+	/**
+	 * Finishes resizing of the grid: requests exact layout and rendering for current size. Is called when
+	 * {@link #resizeTimer} fires. Package access for testing purpose.
+	 */
+	void finishResizing()
+	{
+		resizeTimer.stop();
+		layoutSize = null;
+		revalidate();
+		repaint();
 	}
 
 	/**
 	 * Returns tooltip text with column title, if mouse if over the row title label.
 	 * Returns tooltip with correlations and titles of correlating rows if mouse is over data cell.
+	 * Text of the last hovered cell or title is cached, so it is not built again while mouse moves over it.
+	 * Lines are separated with {@code '\n'}, though tooltip is given the cached lines directly, see
+	 * {@link #createToolTip()}.
 	 * <p>
 	 * {@inheritDoc}
 	 */
@@ -621,80 +1218,133 @@ class CorrelationMatrixGrid extends JPanel
 		{
 			// mouse is above the data cell
 			CellIndex index = optionalIndex.get();
-			int i = index.i;
-			int j = index.j;
-			RowType rowTypeI = matrix.dataTypes.get(i);
-			RowType rowTypeJ = matrix.dataTypes.get(j);
+			return getToolTipText(index.i, index.j);
+		}
+		else
+		{
+			Optional<CellIndex> titleIndex = detectTitleCell(event.getX(), event.getY());
+			if (titleIndex.isPresent())
+			{
+				return getToolTipText(titleIndex.get().i, -1);
+			}
+		}
+		return super.getToolTipText(event);
+	}
+
+	/**
+	 * Returns tooltip text of given data cell or title, re-creating it if another cell or title was hovered before.
+	 *
+	 * @param i row index
+	 * @param j column index, {@code -1} for title of row
+	 * @return tooltip text
+	 */
+	private String getToolTipText(int i, int j)
+	{
+		if (toolTipIndex == null || toolTipIndex.i != i || toolTipIndex.j != j)
+		{
+			toolTipLines = j < 0 ? new String[] { matrix.titles.get(i) } : createToolTipLines(i, j);
+			toolTipText = String.join("\n", toolTipLines);
+			toolTipIndex = new CellIndex(i, j);
+		}
+		return toolTipText;
+	}
+
+	/**
+	 * Creates tooltip lines which describe rows and correlations of given data cell.
+	 * Titles are single lines, even if they contain line breaks.
+	 *
+	 * @param i row index
+	 * @param j column index
+	 * @return tooltip lines
+	 */
+	private String[] createToolTipLines(int i, int j)
+	{
+		RowType rowTypeI = matrix.dataTypes.get(i);
+		RowType rowTypeJ = matrix.dataTypes.get(j);
 
-			// creating HTML text which describes rows and correlations
-			String result = "<html>";
-			result += matrix.titles.get(i) + "<br/>";
-			result += matrix.titles.get(j) + "<br/>";
+		List<String> result = new ArrayList<>(4);
+		result.add(matrix.titles.get(i));
+		result.add(matrix.titles.get(j));
 
+		// detecting type of correlation
+		if (rowTypeI == RowType.NUMERIC && rowTypeJ == RowType.NUMERIC)
+		{
+			// correlation of two numeric values
+			result.add("Pearson's R\u00B2 = " + formatCorrelationValue(matrix.correlations.getCorrelationSqr(i, j),
+					CORRELATION_VALUE_DECIMAL_PLACES));
 
-			// detecting type of correlation
-			if (rowTypeI == RowType.NUMERIC && rowTypeJ == RowType.NUMERIC)
-			{
-				// correlation of two numeric values
-				result += "Pearson's R\u00B2 = " + formatCorrelationValue(matrix.correlationsSqr[i][j],
-						CORRELATION_VALUE_DECIMAL_PLACES) + "<br/>";
+			result.add("Pearson's R = " + formatCorrelationValue(matrix.correlations.getCorrelation(i, j),
+					CORRELATION_VALUE_DECIMAL_PLACES));
 
-				result += "Pearson's R = " + formatCorrelationValue(matrix.correlations[i][j],
-						CORRELATION_VALUE_DECIMAL_PLACES);
-			}
-			else if (rowTypeI == RowType.NOMINAL && rowTypeJ == RowType.NOMINAL)
+			// approximate sources report precision of value
+			double confidenceWidth = matrix.correlations.getConfidenceWidth(i, j);
+			if (!Double.isNaN(confidenceWidth))
 			{
-				// correlation of numeric and nominal value
-				result += "Cramer's V = " + formatCorrelationValue(matrix.correlationsSqr[i][j],
-						CORRELATION_VALUE_DECIMAL_PLACES);
+				result.add("95% confidence width = " + formatCorrelationValue(confidenceWidth,
+						CORRELATION_VALUE_DECIMAL_PLACES));
 			}
-			else
-			{
-				// correlation of two nominal values
-				result += "ANOVA R\u00B2 = " + formatCorrelationValue(matrix.correlationsSqr[i][j],
-						CORRELATION_VALUE_DECIMAL_PLACES);
-			}
-
-			result += "</html>";
-			return result;
+		}
+		else if (rowTypeI == RowType.NOMINAL && rowTypeJ == RowType.NOMINAL)
+		{
+			// correlation of numeric and nominal value
+			result.add("Cramer's V = " + formatCorrelationValue(matrix.correlations.getCorrelationSqr(i, j),
+					CORRELATION_VALUE_DECIMAL_PLACES));
 		}
 		else
 		{
-			Optional<CellIndex> titleIndex = detectTitleCell(event.getX(), event.getY());
-			if (titleIndex.isPresent())
-			{
-				return "<html><p>" + matrix.titles.get(titleIndex.get().i) + "</p></html>";
-			}
+			// correlation of two nominal values
+			result.add("ANOVA R\u00B2 = " + formatCorrelationValue(matrix.correlations.getCorrelationSqr(i, j),
+					CORRELATION_VALUE_DECIMAL_PLACES));
 		}
-		return super.getToolTipText(event);
+		return result.toArray(new String[0]);
 	}
 
 	/**
 	 * Creates custom tooltip for this correlation matrix grid, with respect to tooltip presentational properties specified in {@link CorrelationMatrix},
 	 * like padding and border. Uses custom subclass of tooltip ({@link GridToolTip}) to provide it's rendering anti-aliasing.
+	 * Tooltip is given cached lines of the last hovered cell or title, so they are not split from the text again.
 	 *
 	 * @return created tooltip.
 	 */
 	@Override
 	public JToolTip createToolTip()
 	{
+		if (toolTipIndex != null)
+		{
+			tooltip.setTipLines(toolTipText, toolTipLines);
+		}
 		return tooltip;
 	}
 
 	/**
-	 * Returns the graphical width (in pixels) of graphically longest label of given ones for given font.
-	 * Abbreviates labels with {@link Utilities#abbreviate(java.lang.String, short)} before measuring.
+	 * Returns measurements of rows titles, re-creating them if titles or labels font were changed.
+	 *
+	 * @return title metrics cache
+	 */
+	private TitleMetrics getTitleMetrics()
+	{
+		if (titleMetrics == null || !titleMetrics.matches(matrix.titles, matrix.labelsFont))
+		{
+			titleMetrics = new TitleMetrics(matrix.titles, matrix.labelsFont, this::getFontMetrics,
+					LABEL_ABBREVIATION_LENGTH);
+		}
+		return titleMetrics;
+	}
+
+	/**
+	 * Returns cache of laid out labels for given font and rendering context of given graphical context.
 	 *
-	 * @param labels labels to measure
-	 * @param font font to use during measuring
-	 * @return width in pixels of graphically longest label
+	 * @param glyphs current cache, {@code null} if not created yet
+	 * @param font labels font
+	 * @param g2d graphical context labels are painted with
+	 * @return given cache if it matches, new one otherwise
 	 */
-	private double getLabelsWidth(List<String> labels, Font font)
+	private static LabelGlyphs getLabelGlyphs(/* Nullable */ LabelGlyphs glyphs, Font font, Graphics2D g2d)
 	{
-		FontMetrics fontMetrics = getFontMetrics(font);
-		return labels.stream()
-				.mapToDouble(title -> fontMetrics.stringWidth(Utilities.abbreviate(title, LABEL_ABBREVIATION_LENGTH)))
-				.max().orElseThrow(IllegalStateException::new);
+		FontRenderContext fontRenderContext = g2d.getFontRenderContext();
+		return glyphs != null && glyphs.matches(font, fontRenderContext) ?
+				glyphs :
+				new LabelGlyphs(font, fontRenderContext);
 	}
 
 	/**
@@ -757,24 +1407,557 @@ class CorrelationMatrixGrid extends JPanel
 	}
 
 	/**
-	 * Checks whether given width is enough for given labels in case they are rendered with given font.
-	 * If not enough - required number of letters is removed from the end, and 3 more letter at the end are replaced
-	 * with "...".
-	 *
-	 * @param labels labels to check and replace with modified if needed
-	 * @param labelsFont font to use while measuring
-	 * @param maxWidth maximum allowed width for given labels
+	 * Snapshot of what the static layer (data cells, grid lines and titles) depends on: sizes, source of values,
+	 * presentational properties and caches. Renders the same content regardless of later layout or data changes of the
+	 * grid, so it may be rendered in background thread while event dispatch thread lays out the grid or replaces its
+	 * data (see {@link CorrelationMatrix#isBackgroundRendering()}). Is created in event dispatch thread.
+	 * <br>
+	 * Ellipses are taken from shared {@link EllipseSprites} caches, which are painted with current ellipse properties
+	 * of the matrix. Change of them drops the caches and abandons the layer (see {@link #invalidateCellsImage()}),
+	 * so image of the layer is not displayed then.
 	 */
-	private void abbreviate(List<String> labels, Font labelsFont, double maxWidth)
+	private final class CellsLayer
 	{
-		FontRenderContext fontRenderContext = getGraphics().getFontMetrics().getFontRenderContext();
-		for (int i = 0; i < labels.size(); i++)
+		/**
+		 * Source of displayed values.
+		 */
+		private final CorrelationSource correlations;
+
+		/**
+		 * Amount of data rows.
+		 */
+		private final int length;
+
+		/**
+		 * Width and height of data cell.
+		 */
+		private final double cellSize;
+
+		/**
+		 * Width of cells area, including titles.
+		 */
+		private final double cellsWidth;
+
+		/**
+		 * Height of cells area.
+		 */
+		private final double cellsHeight;
+
+		/**
+		 * Font of titles.
+		 */
+		private final Font labelsFont;
+
+		/**
+		 * Width of grid border.
+		 */
+		private final int borderWidth;
+
+		/**
+		 * Width of grid lines.
+		 */
+		private final float gridLinesWidth;
+
+		/**
+		 * Color of grid lines.
+		 */
+		private final Color gridLinesColor;
+
+		/**
+		 * Color of titles.
+		 */
+		private final Color labelsColor;
+
+		/**
+		 * Colors of compact and aggregated cells.
+		 */
+		private final CellColors cellColors;
+
+		/**
+		 * How values of aggregated cells are combined.
+		 */
+		private final CellsAggregation cellsAggregation;
+
+		/**
+		 * Whether cells are displayed in compact mode, see {@link #isCompact()}.
+		 */
+		private final boolean compact;
+
+		/**
+		 * Measurements of rows titles.
+		 */
+		private final TitleMetrics titleMetrics;
+
+		/**
+		 * Component's width.
+		 */
+		private final int width;
+
+		/**
+		 * Component's height.
+		 */
+		private final int height;
+
+		/**
+		 * Device scale, used to render images with device resolution.
+		 */
+		private final double scale;
+
+		/**
+		 * Configuration to create compatible images, {@code null} if component is not displayable.
+		 */
+		private final /* Nullable */ GraphicsConfiguration configuration;
+
+		/**
+		 * Pool to render tiles in, {@code null} if tiles are rendered in current thread. Is captured, so rendering of
+		 * abandoned layer doesn't create pool again after it's released.
+		 */
+		private final /* Nullable */ ForkJoinPool pool;
+
+		/**
+		 * Whether the layer is rendered in background and may be abandoned.
+		 */
+		private final boolean background;
+
+		/**
+		 * Value of {@link #cellsLayerGeneration} when the layer was created.
+		 */
+		private final int generation;
+
+		/**
+		 * Aggregated values, is built on demand, {@code null} if not built yet.
+		 */
+		private /* Nullable */ ValuesPyramid valuesPyramid;
+
+		/**
+		 * Laid out titles, {@code null} if not created yet.
+		 */
+		private /* Nullable */ LabelGlyphs labelGlyphs;
+
+		/**
+		 * Captures current state of the grid.
+		 *
+		 * @param scale device scale
+		 * @param background whether the layer is rendered in background
+		 */
+		CellsLayer(double scale, boolean background)
+		{
+			this.correlations = matrix.correlations;
+			this.length = matrix.length();
+			this.cellSize = CorrelationMatrixGrid.this.cellSize;
+			this.cellsWidth = CorrelationMatrixGrid.this.cellsWidth;
+			this.cellsHeight = CorrelationMatrixGrid.this.cellsHeight;
+			this.labelsFont = CorrelationMatrixGrid.this.labelsFont;
+			this.borderWidth = matrix.gridBorderWidth;
+			this.gridLinesWidth = matrix.gridLinesWidth;
+			this.gridLinesColor = matrix.gridLinesColor;
+			this.labelsColor = matrix.labelsColor;
+			this.cellColors = matrix.cellColors;
+			this.cellsAggregation = matrix.cellsAggregation;
+			this.compact = isCompact();
+			this.titleMetrics = getTitleMetrics();
+			this.width = getWidth();
+			this.height = getHeight();
+			this.scale = scale;
+			this.configuration = getGraphicsConfiguration();
+			this.pool = matrix.getRenderingPool();
+			this.background = background;
+			this.generation = cellsLayerGeneration.get();
+			this.valuesPyramid = CorrelationMatrixGrid.this.valuesPyramid;
+			this.labelGlyphs = CorrelationMatrixGrid.this.labelGlyphs;
+		}
+
+		/**
+		 * Checks whether the layer has the same sizes as the grid has now.
+		 *
+		 * @param scale current device scale
+		 * @return {@code true} if the layer's image may be displayed without scaling
+		 */
+		boolean matches(double scale)
+		{
+			return width == getWidth() && height == getHeight() && this.scale == scale
+					&& cellSize == CorrelationMatrixGrid.this.cellSize;
+		}
+
+		/**
+		 * Checks whether the layer is rendered in background and became outdated, so its rendering may be stopped.
+		 * May be called from any thread.
+		 *
+		 * @return {@code true} if the result of rendering won't be displayed
+		 */
+		boolean isAbandoned()
+		{
+			return background && generation != cellsLayerGeneration.get();
+		}
+
+		/**
+		 * Renders the layer into new off-screen image of component's size with device resolution.
+		 *
+		 * @return rendered image
+		 */
+		BufferedImage render()
+		{
+			BufferedImage image = createTranslucentImage(ceil(width * scale), ceil(height * scale));
+			Graphics2D g2d = image.createGraphics();
+			try
+			{
+				g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+				g2d.scale(scale, scale);
+				paint(g2d);
+			}
+			finally
+			{
+				g2d.dispose();
+			}
+			return image;
+		}
+
+		/**
+		 * Re-renders given area of given image, which was rendered with the same sizes, keeping the rest of image.
+		 *
+		 * @param image image to render into
+		 * @param area area in component's coordinates
+		 */
+		void render(BufferedImage image, Rectangle area)
+		{
+			Graphics2D g2d = image.createGraphics();
+			try
+			{
+				g2d.scale(scale, scale);
+				g2d.clip(area);
+				g2d.setComposite(AlphaComposite.Clear);
+				g2d.fill(area);
+				g2d.setComposite(AlphaComposite.SrcOver);
+
+				g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+				paint(g2d);
+			}
+			finally
+			{
+				g2d.dispose();
+			}
+		}
+
+		/**
+		 * Paints the layer, which intersects clip of given graphical context.
+		 *
+		 * @param g2d graphical context of component
+		 */
+		void paint(Graphics2D g2d)
+		{
+			g2d.translate(borderWidth, borderWidth);
+			paintCells(g2d);
+			paintGridLines(g2d);
+			paintLabels(g2d);
+			g2d.translate(-borderWidth, -borderWidth);
+		}
+
+		/**
+		 * Creates transparent image, compatible with component's graphics configuration if possible.
+		 *
+		 * @param width image width in pixels
+		 * @param height image height in pixels
+		 * @return new image
+		 */
+		private BufferedImage createTranslucentImage(int width, int height)
+		{
+			if (configuration != null)
+			{
+				return configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+			}
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		}
+
+		/**
+		 * Paints vertical and horizontal grid lines, which intersect clip of given graphical context.
+		 * Grid lines are not painted if cells are aggregated (see {@link #isAggregated(Graphics2D)}).
+		 *
+		 * @param g2d graphical context
+		 */
+		private void paintGridLines(Graphics2D g2d)
+		{
+			if (isAggregated(g2d))
+			{
+				return;
+			}
+			Rectangle clip = getCellsClip(g2d);
+
+			// painting vertical grid lines, line with index i is the left border of column (length - i)
+			g2d.setColor(gridLinesColor);
+			g2d.setStroke(new BasicStroke(gridLinesWidth));
+			int first = Math.max(length - getLastVisibleColumn(clip), 1);
+			int last = Math.min(length - getFirstVisibleColumn(clip), length);
+			for (int i = first; i <= last; i++)
+			{
+				int x = ceil(cellsWidth - cellSize * i);
+				g2d.drawLine(x, 0, x, ceil(cellsHeight));
+			}
+
+			// painting horizontal grid lines, line with index i is the top border of row i
+			first = Math.max(getFirstVisibleRow(clip), 1);
+			last = Math.min(getLastVisibleRow(clip) + 1, length - 1);
+			for (int i = first; i <= last; i++)
+			{
+				int y = ceil(i * cellSize);
+				g2d.drawLine(0, y, ceil(cellsWidth), y);
+			}
+		}
+
+		/**
+		 * Paints rows titles, which intersect clip of given graphical context.
+		 * Titles are not painted if cells are aggregated (see {@link #isAggregated(Graphics2D)}).
+		 *
+		 * @param g2d graphical context
+		 */
+		private void paintLabels(Graphics2D g2d)
+		{
+			Rectangle clip = getCellsClip(g2d);
+			if (clip.x > cellsWidth - cellSize * length || isAggregated(g2d))
+			{
+				// clip covers only data cells, or labels are smaller than a pixel
+				return;
+			}
+
+			double labelMargin = (1 - LABEL_HEIGHT_PROPORTION) * cellSize / 2;
+			g2d.setColor(labelsColor);
+			labelGlyphs = getLabelGlyphs(labelGlyphs, labelsFont, g2d);
+			int last = getLastVisibleRow(clip);
+			for (int i = getFirstVisibleRow(clip); i <= last; i++)
+			{
+				int x = ceil(labelMargin);
+				int y = ceil((i + 1) * cellSize - labelMargin);
+				labelGlyphs.draw(g2d, titleMetrics.getAbbreviatedTitle(i), x, y);
+			}
+		}
+
+		/**
+		 * Creates and paints grid cells content into give graphical context.
+		 * Skips diagonal cells, cells over the diagonal and cells outside of context's clip.
+		 * <br>
+		 * Cells area is split into tiles with device resolution, which are rendered concurrently
+		 * in {@link CorrelationMatrix#getRenderingPool()} (see {@link #renderTile(Rectangle, double, int)})
+		 * and drawn in order. Tiles, which are located over the diagonal, are skipped. Rendering stops, if the layer
+		 * is abandoned.
+		 *
+		 * @param g2d component's graphical context, translated to cells area
+		 */
+		private void paintCells(Graphics2D g2d)
+		{
+			Rectangle clip = getCellsClip(g2d);
+			double cellsStart = cellsWidth - cellSize * length;
+			Rectangle2D cellsArea = new Rectangle2D.Double(cellsStart, 0, cellsWidth - cellsStart, cellsHeight);
+			Rectangle2D area = cellsArea.createIntersection(clip);
+			if (area.isEmpty())
+			{
+				return;
+			}
+
+			// splitting area into tiles with device resolution
+			double scale = g2d.getTransform().getScaleX();
+			int minX = (int) Math.floor(area.getX() * scale);
+			int minY = (int) Math.floor(area.getY() * scale);
+			int maxX = ceil(area.getMaxX() * scale);
+			int maxY = ceil(area.getMaxY() * scale);
+			List<Rectangle> tiles = new ArrayList<>();
+			for (int y = minY; y < maxY; y += TILE_SIZE)
+			{
+				for (int x = minX; x < maxX; x += TILE_SIZE)
+				{
+					Rectangle tile = new Rectangle(x, y, Math.min(TILE_SIZE, maxX - x), Math.min(TILE_SIZE, maxY - y));
+					// skipping tiles without cells below the diagonal, taking ceiling of coordinates into account
+					int firstColumn = (int) Math.floor(((tile.x - 1) / scale - cellsStart) / cellSize);
+					int lastRow = (int) Math.floor((tile.getMaxY() + 1) / scale / cellSize);
+					if (lastRow > firstColumn)
+					{
+						tiles.add(tile);
+					}
+				}
+			}
+
+			// if cells are smaller than a pixel, each pixel displays aggregated value of cells block
+			int level = 0;
+			if (isAggregated(g2d))
+			{
+				if (valuesPyramid == null)
+				{
+					valuesPyramid = new ValuesPyramid(correlations, pool);
+				}
+				level = valuesPyramid.getLevel(1 / (cellSize * scale));
+			}
+
+			// rendering tiles concurrently, drawing them in order as soon as they are ready
+			int pyramidLevel = level;
+			List<ForkJoinTask<BufferedImage>> tasks = new ArrayList<>(tiles.size());
+			for (Rectangle tile : tiles)
+			{
+				tasks.add(pool == null || tiles.size() == 1 ? null : pool.submit(() -> renderTile(tile, scale, pyramidLevel)));
+			}
+			for (int k = 0; k < tiles.size(); k++)
+			{
+				if (isAbandoned())
+				{
+					tasks.stream().skip(k).filter(Objects::nonNull).forEach(task -> task.cancel(false));
+					return;
+				}
+				Rectangle tile = tiles.get(k);
+				BufferedImage image = tasks.get(k) != null ? tasks.get(k).join() : renderTile(tile, scale, level);
+
+				// tile has device resolution, so it is drawn without scaling
+				AffineTransform transform = AffineTransform.getTranslateInstance(tile.x / scale, tile.y / scale);
+				transform.scale(1 / scale, 1 / scale);
+				g2d.drawImage(image, transform, null);
+			}
+		}
+
+		/**
+		 * Renders cells which intersect given tile into new image of tile's size.
+		 * In compact mode, or if cells are aggregated, cells are rasterized directly into image pixels with {@link CellsRaster}.
+		 * May be called from any thread.
+		 *
+		 * @param tile tile bounds in device pixels, relative to cells area
+		 * @param scale amount of device pixels in one unit of cells area coordinates
+		 * @param level level of {@link #valuesPyramid} to take aggregated values from, {@code 0} for single cells
+		 * @return rendered tile
+		 */
+		private BufferedImage renderTile(Rectangle tile, double scale, int level)
+		{
+			if (compact || level > 0)
+			{
+				double cellsStart = cellsWidth - cellSize * length;
+				return new CellsRaster(cellColors, correlations, cellsStart, cellSize, scale, valuesPyramid, level,
+						cellsAggregation).render(tile);
+			}
+
+			BufferedImage image = new BufferedImage(tile.width, tile.height, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g2d = image.createGraphics();
+			try
+			{
+				g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				g2d.translate(-tile.x, -tile.y);
+				g2d.scale(scale, scale);
+				g2d.clip(new Rectangle2D.Double(tile.x / scale, tile.y / scale, tile.width / scale, tile.height / scale));
+				paintOvalCells(g2d);
+			}
+			finally
+			{
+				g2d.dispose();
+			}
+			return image;
+		}
+
+		/**
+		 * Creates and paints non-compact mode cells, which intersect clip of given graphical context.
+		 * Skips diagonal cells and cells over the diagonal.
+		 *
+		 * @param g2d graphical context, translated to cells area
+		 */
+		private void paintOvalCells(Graphics2D g2d)
+		{
+			Rectangle clip = getCellsClip(g2d);
+			int lastColumn = getLastVisibleColumn(clip);
+			int lastRow = getLastVisibleRow(clip);
+			for (int i = getFirstVisibleColumn(clip); i <= lastColumn; i++)
+			{
+				// painting cells only below the diagonal
+				for (int j = Math.max(i + 1, getFirstVisibleRow(clip)); j <= lastRow; j++)
+				{
+					Cell cell = createCell(i, j);
+					paintCell(g2d, cell, false);
+				}
+			}
+		}
+
+		/**
+		 * Returns clip bounds of given graphical context, or whole cells area if there is no clip.
+		 * Coordinates are relative to cells area (without borders).
+		 *
+		 * @param g2d graphical context, translated to cells area
+		 * @return clip bounds
+		 */
+		private Rectangle getCellsClip(Graphics2D g2d)
+		{
+			Rectangle clip = g2d.getClipBounds();
+			return clip != null ? clip : new Rectangle(0, 0, ceil(cellsWidth), ceil(cellsHeight));
+		}
+
+		/**
+		 * Returns index of the first column, which may intersect given clip.
+		 * One pixel and one cell are added to clip as margin for anti-aliasing, strokes and ceiling.
+		 *
+		 * @param clip clip bounds, relative to cells area
+		 * @return column index, {@code 0} at least
+		 */
+		private int getFirstVisibleColumn(Rectangle clip)
+		{
+			double cellsStart = cellsWidth - cellSize * length;
+			return Math.max((int) Math.floor((clip.x - 1 - cellsStart) / cellSize) - 1, 0);
+		}
+
+		/**
+		 * Returns index of the last column, which may intersect given clip.
+		 *
+		 * @param clip clip bounds, relative to cells area
+		 * @return column index, {@code length - 1} at most
+		 */
+		private int getLastVisibleColumn(Rectangle clip)
+		{
+			double cellsStart = cellsWidth - cellSize * length;
+			return Math.min((int) Math.floor((clip.getMaxX() + 1 - cellsStart) / cellSize) + 1, length - 1);
+		}
+
+		/**
+		 * Returns index of the first row, which may intersect given clip.
+		 *
+		 * @param clip clip bounds, relative to cells area
+		 * @return row index, {@code 0} at least
+		 */
+		private int getFirstVisibleRow(Rectangle clip)
+		{
+			return Math.max((int) Math.floor((clip.y - 1) / cellSize) - 1, 0);
+		}
+
+		/**
+		 * Returns index of the last row, which may intersect given clip.
+		 *
+		 * @param clip clip bounds, relative to cells area
+		 * @return row index, {@code length - 1} at most
+		 */
+		private int getLastVisibleRow(Rectangle clip)
+		{
+			return Math.min((int) Math.floor((clip.getMaxY() + 1) / cellSize) + 1, length - 1);
+		}
+
+		/**
+		 * Creates cell model with pre-calculated coordinates for given data coordinates.
+		 *
+		 * @param i row index
+		 * @param j column index
+		 * @return cell model
+		 */
+		private Cell createCell(int i, int j)
+		{
+			Cell cell = new Cell();
+			cell.x = cellsWidth - (length - i) * cellSize;
+			cell.y = j * cellSize;
+			cell.value = correlations.getValue(i, j);
+			cell.size = cellSize;
+			cell.compact = compact;
+			return cell;
+		}
+
+		/**
+		 * Returns whether cells are so small, that each device pixel displays aggregated value of several cells
+		 * (see {@link ValuesPyramid}). In this case grid lines and titles would cover cells completely, so they are
+		 * not painted.
+		 *
+		 * @param g2d graphical context to take device scale from
+		 * @return {@code true} if cells are smaller than a half of device pixel
+		 */
+		private boolean isAggregated(Graphics2D g2d)
 		{
-			String label = labels.get(i);
-			TextLayout layout = new TextLayout(label, labelsFont, fontRenderContext);
-			TextHitInfo hit = layout.hitTestChar((float) maxWidth, 0);
-			short charIndex = (short) hit.getCharIndex();
-			labels.set(i, Utilities.abbreviate(label, charIndex));
+			return cellSize * g2d.getTransform().getScaleX() <= 0.5;
 		}
 	}
 }
@@ -0,0 +1,90 @@
+package com.earnix.eo.gui.correlation;
+
+/**
+ * Provides correlation values of symmetric correlation matrix to {@link CorrelationMatrix}.
+ * {@code NaN} means absence of correlation.
+ * <br>
+ * Values are read on demand only for painted, zoomed or hovered cells, so source may keep them anywhere.
+ * Cells are rendered by several threads, so implementation should allow concurrent reading.
+ *
+ * @see PackedCorrelations
+ * @see MappedCorrelations
+ * @see SampledCorrelations
+ * @see CorrelationMatrix#CorrelationMatrix(java.util.List, java.util.List, CorrelationSource)
+ */
+public interface CorrelationSource
+{
+	/**
+	 * Returns amount of rows (and columns) in correlations table.
+	 *
+	 * @return number of rows
+	 */
+	int length();
+
+	/**
+	 * Returns correlation value for given cell coordinates.
+	 *
+	 * @param i row index
+	 * @param j column index
+	 * @return correlation value
+	 */
+	double getCorrelation(int i, int j);
+
+	/**
+	 * Returns square correlation value for given cell coordinates.
+	 *
+	 * @param i row index
+	 * @param j column index
+	 * @return square correlation value
+	 */
+	double getCorrelationSqr(int i, int j);
+
+	/**
+	 * Changes correlation of given cell and its symmetric cell. Is not supported by read-only sources.
+	 *
+	 * @param i row index
+	 * @param j column index
+	 * @param correlation correlation value. {@code NaN} means absence of correlation.
+	 * @param correlationSqr square correlation value. {@code NaN} means absence of correlation.
+	 * @throws UnsupportedOperationException if source is read-only
+	 * @see CorrelationMatrix#updateCell(int, int, double, double)
+	 */
+	default void setCorrelation(int i, int j, double correlation, double correlationSqr)
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Returns width of confidence interval of correlation value for approximate sources, which is displayed in
+	 * tooltip. Exact sources return {@code NaN}.
+	 *
+	 * @param i row index
+	 * @param j column index
+	 * @return confidence interval width, {@code NaN} if value is exact
+	 */
+	default double getConfidenceWidth(int i, int j)
+	{
+		return Double.NaN;
+	}
+
+	/**
+	 * Returns displayed value of cell: square correlation value with sign of correlation value.
+	 *
+	 * @param i row index
+	 * @param j column index
+	 * @return signed square correlation value
+	 */
+	default double getValue(int i, int j)
+	{
+		double value;
+		if (getCorrelation(i, j) < 0)
+		{
+			value = -getCorrelationSqr(i, j);
+		}
+		else
+		{
+			value = getCorrelationSqr(i, j);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,212 @@
+package com.earnix.eo.gui.correlation;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates <a href="https://en.wikipedia.org/wiki/Cram%C3%A9r%27s_V">Cramér's V</a> of all pairs of nominal columns.
+ * <br>
+ * Contingency table of each pair is counted in primitive {@code int[]} array. If the table of high-cardinality
+ * columns would exceed {@link #MAX_DENSE_CELLS}, only its non-empty cells are counted by sorting combined codes of
+ * rows, so memory consumption is bounded by amount of rows. Pairs are calculated concurrently.
+ * <br>
+ * Rows where any of two values is missing are skipped. Cramér's V is stored as square correlation value
+ * and correlation value is {@code NaN}, as matrix expects for nominal pairs.
+ */
+public final class CramersVCalculator
+{
+	/**
+	 * Maximum amount of cells in contingency table, which is counted in dense array.
+	 */
+	private static final int MAX_DENSE_CELLS = 1 << 20;
+
+	private CramersVCalculator()
+	{
+	}
+
+	/**
+	 * Calculates Cramér's V of all pairs of given columns in common pool.
+	 *
+	 * @param columns encoded nominal columns of the same size
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 * @return correlations, row {@code c} of correlation matrix corresponds to column {@code c}
+	 */
+	public static PackedCorrelations calculate(NominalColumn[] columns, boolean singlePrecision)
+	{
+		PackedCorrelations result = new PackedCorrelations(columns.length, singlePrecision);
+		calculate(columns, IntStream.range(0, columns.length).toArray(), result, ForkJoinPool.commonPool());
+		return result;
+	}
+
+	/**
+	 * Calculates Cramér's V of all pairs of given columns and stores them in given correlations.
+	 *
+	 * @param columns encoded nominal columns of the same size
+	 * @param indexes row of correlation matrix for each column
+	 * @param target correlations to store results in
+	 * @param pool pool to calculate in parallel, {@code null} to calculate in current thread
+	 */
+	public static void calculate(NominalColumn[] columns, int[] indexes, PackedCorrelations target,
+			/* Nullable */ ForkJoinPool pool)
+	{
+		Objects.requireNonNull(target);
+		if (columns.length != indexes.length)
+		{
+			throw new IllegalArgumentException();
+		}
+		for (int c = 0; c < columns.length; c++)
+		{
+			if (columns[c].size() != columns[0].size() || indexes[c] < 0 || indexes[c] >= target.length())
+			{
+				throw new IllegalArgumentException();
+			}
+		}
+
+		Utilities.forEach(pool, IntStream.range(0, columns.length), a -> {
+			for (int b = 0; b <= a; b++)
+			{
+				target.setCorrelation(indexes[a], indexes[b], Double.NaN, calculate(columns[a], columns[b]));
+			}
+		});
+	}
+
+	/**
+	 * Calculates Cramér's V of given columns.
+	 *
+	 * @param x the first column
+	 * @param y the second column
+	 * @return Cramér's V, {@code NaN} if any of columns has less than two levels in rows without missing values
+	 */
+	static double calculate(NominalColumn x, NominalColumn y)
+	{
+		long cells = (long) x.levels * y.levels;
+		return cells <= MAX_DENSE_CELLS ? calculateDense(x, y) : calculateSparse(x, y);
+	}
+
+	/**
+	 * Calculates Cramér's V of given columns, counting contingency table in dense array.
+	 *
+	 * @param x the first column
+	 * @param y the second column
+	 * @return Cramér's V
+	 */
+	private static double calculateDense(NominalColumn x, NominalColumn y)
+	{
+		int[] table = new int[x.levels * y.levels];
+		int[] rowCounts = new int[x.levels];
+		int[] columnCounts = new int[y.levels];
+		int total = 0;
+		for (int r = 0; r < x.codes.length; r++)
+		{
+			int codeX = x.codes[r];
+			int codeY = y.codes[r];
+			if (codeX != NominalColumn.MISSING && codeY != NominalColumn.MISSING)
+			{
+				table[codeX * y.levels + codeY]++;
+				rowCounts[codeX]++;
+				columnCounts[codeY]++;
+				total++;
+			}
+		}
+
+		double sum = 0;
+		for (int codeX = 0; codeX < x.levels; codeX++)
+		{
+			for (int codeY = 0; codeY < y.levels; codeY++)
+			{
+				int count = table[codeX * y.levels + codeY];
+				if (count > 0)
+				{
+					sum += (double) count * count / ((double) rowCounts[codeX] * columnCounts[codeY]);
+				}
+			}
+		}
+		return cramersV(sum, total, countLevels(rowCounts), countLevels(columnCounts));
+	}
+
+	/**
+	 * Calculates Cramér's V of given columns, counting only non-empty cells of contingency table.
+	 * Rows are represented with combined codes of both values, which are sorted to count equal ones.
+	 *
+	 * @param x the first column
+	 * @param y the second column
+	 * @return Cramér's V
+	 */
+	private static double calculateSparse(NominalColumn x, NominalColumn y)
+	{
+		long[] keys = new long[x.codes.length];
+		int[] rowCounts = new int[x.levels];
+		int[] columnCounts = new int[y.levels];
+		int total = 0;
+		for (int r = 0; r < x.codes.length; r++)
+		{
+			int codeX = x.codes[r];
+			int codeY = y.codes[r];
+			if (codeX != NominalColumn.MISSING && codeY != NominalColumn.MISSING)
+			{
+				keys[total++] = (long) codeX * y.levels + codeY;
+				rowCounts[codeX]++;
+				columnCounts[codeY]++;
+			}
+		}
+		Arrays.sort(keys, 0, total);
+
+		double sum = 0;
+		for (int start = 0; start < total; )
+		{
+			int end = start + 1;
+			while (end < total && keys[end] == keys[start])
+			{
+				end++;
+			}
+			double count = end - start;
+			int codeX = (int) (keys[start] / y.levels);
+			int codeY = (int) (keys[start] % y.levels);
+			sum += count * count / ((double) rowCounts[codeX] * columnCounts[codeY]);
+			start = end;
+		}
+		return cramersV(sum, total, countLevels(rowCounts), countLevels(columnCounts));
+	}
+
+	/**
+	 * Returns amount of levels which occur at least once.
+	 *
+	 * @param counts amount of rows per level
+	 * @return amount of occurring levels
+	 */
+	private static int countLevels(int[] counts)
+	{
+		int levels = 0;
+		for (int count : counts)
+		{
+			if (count > 0)
+			{
+				levels++;
+			}
+		}
+		return levels;
+	}
+
+	/**
+	 * Calculates Cramér's V from contingency table summary. Uses the fact that χ² / n equals sum of
+	 * {@code n_ij² / (n_i * n_j)} over non-empty cells minus one.
+	 *
+	 * @param sum sum of {@code n_ij² / (n_i * n_j)} over non-empty cells
+	 * @param total amount of counted rows
+	 * @param rowLevels amount of occurring levels of the first column
+	 * @param columnLevels amount of occurring levels of the second column
+	 * @return Cramér's V, {@code NaN} if any of columns has less than two occurring levels
+	 */
+	private static double cramersV(double sum, int total, int rowLevels, int columnLevels)
+	{
+		int degrees = Math.min(rowLevels, columnLevels) - 1;
+		if (total == 0 || degrees < 1)
+		{
+			return Double.NaN;
+		}
+		double phiSqr = Math.max(0, sum - 1);
+		return Math.min(1, Math.sqrt(phiSqr / degrees));
+	}
+}
@@ -0,0 +1,136 @@
+package com.earnix.eo.gui.correlation;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache of pre-rendered non-compact cells (rotated squeezed ellipses) for single cell size and device scale.
+ * Cell value is quantized into {@link #STEPS} steps per sign, sprite of each step is rendered on demand with
+ * device resolution and then is drawn instead of painting the ellipse. May be used from any thread.
+ * <br>
+ * Sprites depend on cell colors and ellipse stroke, so cache should be dropped if they are changed.
+ */
+class EllipseSprites
+{
+	/**
+	 * Amount of quantization steps per sign.
+	 */
+	static final int STEPS = 256;
+
+	/**
+	 * Maximum width and height of sprite in device pixels. Larger cells are few, so they are painted directly.
+	 */
+	static final int MAX_SIZE = 128;
+
+	/**
+	 * Cell width and height.
+	 */
+	private final double size;
+
+	/**
+	 * Amount of device pixels in one unit of cell coordinates.
+	 */
+	private final double scale;
+
+	/**
+	 * Space around cell in sprite, which is reserved for stroke and anti-aliasing.
+	 */
+	private final double padding;
+
+	/**
+	 * Paints single cell into graphical context, is used to render sprites.
+	 */
+	private final BiConsumer<Graphics2D, Cell> painter;
+
+	/**
+	 * Rendered sprites, from the most negative value to the most positive one. {@code null} if not rendered yet.
+	 */
+	private final AtomicReferenceArray<BufferedImage> sprites = new AtomicReferenceArray<>(STEPS * 2 + 1);
+
+	/**
+	 * Creates empty cache of sprites.
+	 *
+	 * @param size cell width and height
+	 * @param scale amount of device pixels in one unit of cell coordinates
+	 * @param padding space around cell in sprite, which is reserved for stroke and anti-aliasing
+	 * @param painter paints single cell into graphical context
+	 */
+	EllipseSprites(double size, double scale, double padding, BiConsumer<Graphics2D, Cell> painter)
+	{
+		this.size = size;
+		this.scale = scale;
+		this.padding = padding;
+		this.painter = painter;
+	}
+
+	/**
+	 * Checks whether this cache contains sprites for given cell size and device scale.
+	 *
+	 * @param size cell width and height
+	 * @param scale amount of device pixels in one unit of cell coordinates
+	 * @return {@code true} if sprites match given sizes
+	 */
+	boolean matches(double size, double scale)
+	{
+		return this.size == size && this.scale == scale;
+	}
+
+	/**
+	 * Draws sprite of given cell into given graphical context, rendering it if needed.
+	 * Sprite is aligned to device pixels.
+	 *
+	 * @param g2d graphical context with device scale this cache was created for
+	 * @param cell cell model with size this cache was created for
+	 */
+	void paint(Graphics2D g2d, Cell cell)
+	{
+		int step = Math.min((int) Math.round(Math.abs(cell.value) * STEPS), STEPS);
+		int index = cell.value > 0 ? STEPS + step : STEPS - step;
+		BufferedImage sprite = sprites.get(index);
+		if (sprite == null)
+		{
+			// concurrent rendering of the same sprite is harmless
+			sprite = render((index - STEPS) / (double) STEPS);
+			sprites.set(index, sprite);
+		}
+
+		double x = Math.round((cell.x - padding) * scale) / scale;
+		double y = Math.round((cell.y - padding) * scale) / scale;
+		AffineTransform transform = AffineTransform.getTranslateInstance(x, y);
+		transform.scale(1 / scale, 1 / scale);
+		g2d.drawImage(sprite, transform, null);
+	}
+
+	/**
+	 * Renders sprite of cell with given value.
+	 *
+	 * @param value quantized cell value
+	 * @return rendered sprite with device resolution
+	 */
+	private BufferedImage render(double value)
+	{
+		int side = (int) Math.ceil((size + padding * 2) * scale);
+		BufferedImage sprite = new BufferedImage(side, side, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2d = sprite.createGraphics();
+		try
+		{
+			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g2d.scale(scale, scale);
+			Cell cell = new Cell();
+			cell.x = padding;
+			cell.y = padding;
+			cell.size = size;
+			cell.value = value;
+			painter.accept(g2d, cell);
+		}
+		finally
+		{
+			g2d.dispose();
+		}
+		return sprite;
+	}
+}
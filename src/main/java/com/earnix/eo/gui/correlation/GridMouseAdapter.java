@@ -21,12 +21,14 @@ class GridMouseAdapter extends MouseAdapter
 	 * Detects if mouse was pressed on data cell, title cell or elsewhere.
 	 * In case of title cell - enables highlights (store title's index).
 	 * In case of data cell - creates zoom model.
-	 * Removes current highlight otherwise. Requests component's repaint.
+	 * Removes current highlight otherwise. Requests repaint of changed regions.
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void mousePressed(MouseEvent e)
 	{
+		CellIndex previousHighlightIndex = grid.highlightIndex;
+		Zoom previousZoom = grid.zoom;
 		Optional<CellIndex> optionalZoomIndex = grid.detectCell(e.getX(), e.getY());
 		if (optionalZoomIndex.isPresent())
 		{
@@ -37,11 +39,11 @@ class GridMouseAdapter extends MouseAdapter
 			Optional<CellIndex> optionalHighlightIndex = grid.detectTitleCell(e.getX(), e.getY());
 			grid.highlightIndex = optionalHighlightIndex.orElse(null);
 		}
-		grid.repaint();
+		grid.interactionChanged(previousHighlightIndex, previousZoom);
 	}
 
 	/**
-	 * I zoom is currently active - removes it's model and triggers component's repaint.
+	 * I zoom is currently active - removes it's model and triggers repaint of its regions.
 	 * {@inheritDoc}
 	 */
 	@Override
@@ -49,21 +51,24 @@ class GridMouseAdapter extends MouseAdapter
 	{
 		if (grid.zoom != null)
 		{
+			Zoom previousZoom = grid.zoom;
 			grid.zoom = null;
-			grid.repaint();
+			grid.interactionChanged(grid.highlightIndex, previousZoom);
 		}
 	}
 
 	/**
 	 * Detects if mouse was dragged with active zoom or highlight feature.
 	 * If so - check whether feature's data coordinates were changed.
-	 * If so - updates its model and triggers repaint.
+	 * If so - updates its model and triggers repaint of changed regions.
 	 * If mouse was dragged outside feature's cells - disables it.
 	 * {@inheritDoc}
 	 */
 	@Override
 	public void mouseDragged(MouseEvent e)
 	{
+		CellIndex previousHighlightIndex = grid.highlightIndex;
+		Zoom previousZoom = grid.zoom;
 		boolean repaint = false;
 		if (grid.zoom != null)
 		{
@@ -72,10 +77,11 @@ class GridMouseAdapter extends MouseAdapter
 			Optional<CellIndex> optionalIndex = grid.detectCell(e.getX(), e.getY());
 			if (optionalIndex.isPresent())
 			{
-				CellIndex nextZoomIndex = optionalIndex.get();
-				if (nextZoomIndex.i != grid.zoom.i || nextZoomIndex.j != grid.zoom.j)
+				// zoom models are memoized, so the same model is returned until zoomed area is changed
+				Zoom nextZoom = grid.createZoom(optionalIndex.get());
+				if (nextZoom != grid.zoom)
 				{
-					grid.zoom = grid.createZoom(optionalIndex.get());
+					grid.zoom = nextZoom;
 					repaint = true;
 				}
 			}
@@ -110,7 +116,7 @@ class GridMouseAdapter extends MouseAdapter
 
 		if (repaint)
 		{
-			grid.repaint();
+			grid.interactionChanged(previousHighlightIndex, previousZoom);
 		}
 	}
 }
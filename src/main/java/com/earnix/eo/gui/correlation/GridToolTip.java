@@ -3,18 +3,37 @@ package com.earnix.eo.gui.correlation;
 import javax.swing.BorderFactory;
 import javax.swing.JToolTip;
 import javax.swing.border.CompoundBorder;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Insets;
 import java.awt.RenderingHints;
+import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Custom tooltip used in matrix grid component. Uses presentational properties, stored in {@link CorrelationMatrix}.
  * Renders with anti-aliasing.
+ * <br>
+ * Tooltip text is plain. Lines are given by the grid together with the text, so line breaks inside titles do not
+ * split them. Lines are painted directly instead of parsing and laying out HTML, and are measured only when text is
+ * changed, so showing the same text again is cheap.
  *
  * @see com.earnix.eo.gui.correlation.CorrelationMatrixGrid#createToolTip()
  */
 class GridToolTip extends JToolTip
 {
+	/**
+	 * Lines of current text. Package access for testing purpose.
+	 */
+	String[] lines = new String[0];
+
+	/**
+	 * Size of current text, {@code null} if text or font were changed after it was measured.
+	 */
+	private /* Nullable */ Dimension textSize;
 
 	/**
 	 * Creates new tooltip for correlation matrix.
@@ -34,7 +53,77 @@ class GridToolTip extends JToolTip
 	}
 
 	/**
-	 * Enables anti-aliasing.
+	 * Sets text together with lines to paint it with.
+	 *
+	 * @param tipText text of tooltip
+	 * @param lines lines of text
+	 */
+	void setTipLines(String tipText, String[] lines)
+	{
+		if (!Objects.equals(tipText, getTipText()) || !Arrays.equals(lines, this.lines))
+		{
+			this.lines = lines;
+			textSize = null;
+		}
+		super.setTipText(tipText);
+	}
+
+	/**
+	 * Shows given text as single line, if it differs from the current one.
+	 * Text, which was set with lines by {@link #setTipLines(String, String[])}, is kept.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setTipText(String tipText)
+	{
+		if (!Objects.equals(tipText, getTipText()))
+		{
+			lines = tipText != null ? new String[] { tipText } : new String[0];
+			textSize = null;
+		}
+		super.setTipText(tipText);
+	}
+
+	/**
+	 * Drops measurements of current text.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setFont(Font font)
+	{
+		super.setFont(font);
+		// is called by super constructor before fields are initialized
+		textSize = null;
+	}
+
+	/**
+	 * Returns size of text lines with insets.
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Dimension getPreferredSize()
+	{
+		if (isPreferredSizeSet())
+		{
+			return super.getPreferredSize();
+		}
+		if (textSize == null)
+		{
+			FontMetrics fontMetrics = getFontMetrics(getFont());
+			int width = 0;
+			for (String line : lines)
+			{
+				width = Math.max(width, fontMetrics.stringWidth(line));
+			}
+			textSize = new Dimension(width, fontMetrics.getHeight() * lines.length);
+		}
+		Insets insets = getInsets();
+		return new Dimension(textSize.width + insets.left + insets.right,
+				textSize.height + insets.top + insets.bottom);
+	}
+
+	/**
+	 * Paints background and text lines with anti-aliasing.
 	 * {@inheritDoc}
 	 */
 	@SuppressWarnings("Duplicates")
@@ -44,6 +133,18 @@ class GridToolTip extends JToolTip
 		Graphics2D g2d = (Graphics2D) g;
 		g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 		g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-		super.paintComponent(g);
+		g2d.setColor(getBackground());
+		g2d.fillRect(0, 0, getWidth(), getHeight());
+
+		g2d.setFont(getFont());
+		g2d.setColor(getForeground());
+		FontMetrics fontMetrics = g2d.getFontMetrics();
+		Insets insets = getInsets();
+		int y = insets.top + fontMetrics.getAscent();
+		for (String line : lines)
+		{
+			g2d.drawString(line, insets.left, y);
+			y += fontMetrics.getHeight();
+		}
 	}
 }
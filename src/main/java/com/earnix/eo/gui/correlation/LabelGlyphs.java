@@ -0,0 +1,83 @@
+package com.earnix.eo.gui.correlation;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.text.Bidi;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of laid out labels for single font size. Labels are laid out into glyph vectors once, with shaping of
+ * complex scripts, and then are painted with {@link Graphics2D#drawGlyphVector(GlyphVector, float, float)}, so text
+ * is not laid out on each paint. Labels with bidirectional text are not cached and are painted with
+ * {@link Graphics2D#drawString(String, int, int)}, which reorders them. May be used by several rendering threads.
+ */
+class LabelGlyphs
+{
+	/**
+	 * Font of labels, including size.
+	 */
+	private final Font font;
+
+	/**
+	 * Rendering context which glyphs are laid out for.
+	 */
+	private final FontRenderContext fontRenderContext;
+
+	/**
+	 * Glyph vectors by label text.
+	 */
+	private final Map<String, GlyphVector> glyphs = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates empty cache.
+	 *
+	 * @param font font of labels, including size
+	 * @param fontRenderContext rendering context which glyphs are laid out for
+	 */
+	LabelGlyphs(Font font, FontRenderContext fontRenderContext)
+	{
+		this.font = font;
+		this.fontRenderContext = fontRenderContext;
+	}
+
+	/**
+	 * Checks whether this cache contains glyphs for given font and rendering context.
+	 *
+	 * @param font font of labels, including size
+	 * @param fontRenderContext rendering context
+	 * @return {@code true} if cached glyphs may be painted with given font and context
+	 */
+	boolean matches(Font font, FontRenderContext fontRenderContext)
+	{
+		return this.font.equals(font) && this.fontRenderContext.equals(fontRenderContext);
+	}
+
+	/**
+	 * Paints given label into given graphical context, laying it out if needed.
+	 *
+	 * @param g2d graphical context with rendering context this cache was created for
+	 * @param label label text
+	 * @param x horizontal location of label's baseline
+	 * @param y vertical location of label's baseline
+	 */
+	void draw(Graphics2D g2d, String label, int x, int y)
+	{
+		GlyphVector glyphVector = glyphs.get(label);
+		if (glyphVector == null)
+		{
+			char[] text = label.toCharArray();
+			if (Bidi.requiresBidi(text, 0, text.length))
+			{
+				g2d.setFont(font);
+				g2d.drawString(label, x, y);
+				return;
+			}
+			glyphVector = glyphs.computeIfAbsent(label, key -> font.layoutGlyphVector(fontRenderContext, text, 0,
+					text.length, Font.LAYOUT_LEFT_TO_RIGHT));
+		}
+		g2d.drawGlyphVector(glyphVector, x, y);
+	}
+}
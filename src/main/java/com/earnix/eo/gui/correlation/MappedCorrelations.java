@@ -0,0 +1,203 @@
+package com.earnix.eo.gui.correlation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only correlation source backed by memory-mapped file, so values stay off heap and operating system pages in
+ * only the parts of file which are painted, zoomed or hovered. Opening a file of any size is instant.
+ * <br>
+ * File keeps lower triangle (including diagonal) of symmetric matrix in the same layout as {@link PackedCorrelations}:
+ * each cell is square correlation value with sign of correlation value, with float or double precision.
+ * Files are written with {@link #write(Path, CorrelationSource, boolean)}, for example by batch job which
+ * calculates correlations.
+ * <br>
+ * Mapping is released by garbage collector after this source becomes unreachable.
+ */
+public final class MappedCorrelations implements CorrelationSource
+{
+	/**
+	 * First bytes of correlations file.
+	 */
+	private static final int MAGIC = 0x434F5252;
+
+	/**
+	 * Size of header: magic, amount of rows and value size in bytes, each takes 4 bytes.
+	 */
+	private static final int HEADER_SIZE = 12;
+
+	/**
+	 * Maximum size of single mapped segment in bytes. Is a power of two, so values never cross segments.
+	 */
+	private static final int SEGMENT_SIZE = 1 << 30;
+
+	/**
+	 * Size of buffer used for writing file.
+	 */
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	/**
+	 * Amount of rows (and columns).
+	 */
+	private final int length;
+
+	/**
+	 * Size of single value in bytes, {@link Float#BYTES} or {@link Double#BYTES}.
+	 */
+	private final int valueSize;
+
+	/**
+	 * Mapped segments of values region of file.
+	 */
+	private final MappedByteBuffer[] segments;
+
+	/**
+	 * Creates correlation source from mapped segments.
+	 *
+	 * @param length amount of rows (and columns)
+	 * @param valueSize size of single value in bytes
+	 * @param segments mapped segments of values region of file
+	 */
+	private MappedCorrelations(int length, int valueSize, MappedByteBuffer[] segments)
+	{
+		this.length = length;
+		this.valueSize = valueSize;
+		this.segments = segments;
+	}
+
+	/**
+	 * Maps given correlations file into memory.
+	 *
+	 * @param file file written with {@link #write(Path, CorrelationSource, boolean)}
+	 * @return correlation source backed by file
+	 * @throws IOException if file can't be read or has wrong format
+	 */
+	public static MappedCorrelations open(Path file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			// reading header
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining())
+			{
+				if (channel.read(header, header.position()) < 0)
+				{
+					throw new IOException("Unexpected end of correlations file: " + file);
+				}
+			}
+			header.flip();
+			int magic = header.getInt();
+			int length = header.getInt();
+			int valueSize = header.getInt();
+			if (magic != MAGIC || length < 0 || (valueSize != Float.BYTES && valueSize != Double.BYTES))
+			{
+				throw new IOException("Not a correlations file: " + file);
+			}
+			long valuesSize = PackedCorrelations.triangleSize(length) * valueSize;
+			if (channel.size() < HEADER_SIZE + valuesSize)
+			{
+				throw new IOException("Truncated correlations file: " + file);
+			}
+
+			// mapping values by segments, since single buffer can't exceed 2 GB
+			MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((valuesSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+			for (int k = 0; k < segments.length; k++)
+			{
+				long position = (long) k * SEGMENT_SIZE;
+				long size = Math.min(SEGMENT_SIZE, valuesSize - position);
+				segments[k] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + position, size);
+			}
+			return new MappedCorrelations(length, valueSize, segments);
+		}
+	}
+
+	/**
+	 * Writes lower triangle of given correlations into file, which can be opened with {@link #open(Path)}.
+	 * Existing file is overwritten.
+	 *
+	 * @param file file to write
+	 * @param correlations correlations to write
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 * @throws IOException if file can't be written
+	 */
+	public static void write(Path file, CorrelationSource correlations, boolean singlePrecision) throws IOException
+	{
+		int length = correlations.length();
+		int valueSize = singlePrecision ? Float.BYTES : Double.BYTES;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+			buffer.putInt(MAGIC).putInt(length).putInt(valueSize);
+			for (int i = 0; i < length; i++)
+			{
+				for (int j = 0; j <= i; j++)
+				{
+					if (buffer.remaining() < valueSize)
+					{
+						flush(channel, buffer);
+					}
+					double value = correlations.getValue(i, j);
+					if (singlePrecision)
+					{
+						buffer.putFloat((float) value);
+					}
+					else
+					{
+						buffer.putDouble(value);
+					}
+				}
+			}
+			flush(channel, buffer);
+		}
+	}
+
+	/**
+	 * Writes content of given buffer into channel and clears the buffer.
+	 *
+	 * @param channel channel to write
+	 * @param buffer buffer in writing mode
+	 * @throws IOException if channel can't be written
+	 */
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public int length()
+	{
+		return length;
+	}
+
+	@Override
+	public double getValue(int i, int j)
+	{
+		long position = PackedCorrelations.triangleIndex(length, i, j) * valueSize;
+		MappedByteBuffer segment = segments[(int) (position / SEGMENT_SIZE)];
+		int offset = (int) (position % SEGMENT_SIZE);
+		return valueSize == Float.BYTES ? segment.getFloat(offset) : segment.getDouble(offset);
+	}
+
+	@Override
+	public double getCorrelation(int i, int j)
+	{
+		double value = getValue(i, j);
+		return value < 0 ? -Math.sqrt(-value) : Math.sqrt(value);
+	}
+
+	@Override
+	public double getCorrelationSqr(int i, int j)
+	{
+		return Math.abs(getValue(i, j));
+	}
+}
@@ -0,0 +1,83 @@
+package com.earnix.eo.gui.correlation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary-encoded nominal data column. Each value is replaced with code of its level, so correlation calculators
+ * work with primitive arrays instead of objects. Missing values have code {@link #MISSING}.
+ *
+ * @see CramersVCalculator
+ * @see AnovaCalculator
+ */
+public final class NominalColumn
+{
+	/**
+	 * Code of missing value.
+	 */
+	public static final int MISSING = -1;
+
+	/**
+	 * Level code of each row.
+	 */
+	final int[] codes;
+
+	/**
+	 * Amount of distinct levels, codes are in range from {@code 0} to {@code levels - 1}.
+	 */
+	final int levels;
+
+	/**
+	 * Creates column from already encoded values. Array is not copied.
+	 *
+	 * @param codes level code of each row, {@link #MISSING} for missing values
+	 * @param levels amount of distinct levels
+	 */
+	public NominalColumn(int[] codes, int levels)
+	{
+		for (int code : codes)
+		{
+			if (code < MISSING || code >= levels)
+			{
+				throw new IllegalArgumentException("Code " + code + " is out of " + levels + " levels");
+			}
+		}
+		this.codes = codes;
+		this.levels = levels;
+	}
+
+	/**
+	 * Encodes given values, levels are numbered in order of their first occurrence.
+	 *
+	 * @param values column values, {@code null} means missing value
+	 * @return encoded column
+	 */
+	public static NominalColumn encode(List<?> values)
+	{
+		Map<Object, Integer> dictionary = new HashMap<>();
+		int[] codes = new int[values.size()];
+		int row = 0;
+		for (Object value : values)
+		{
+			codes[row++] = value == null ? MISSING : dictionary.computeIfAbsent(value, v -> dictionary.size());
+		}
+		return new NominalColumn(codes, dictionary.size());
+	}
+
+	/**
+	 * @return amount of rows
+	 */
+	public int size()
+	{
+		return codes.length;
+	}
+
+	/**
+	 * @return amount of distinct levels
+	 */
+	public int getLevels()
+	{
+		return levels;
+	}
+}
@@ -0,0 +1,173 @@
+package com.earnix.eo.gui.correlation;
+
+import java.util.Arrays;
+
+/**
+ * Compact storage of symmetric correlation matrix. Keeps lower triangle (including diagonal) of the matrix
+ * in single contiguous array with double or float precision.
+ * <br>
+ * Each cell is stored as one number: square correlation value with sign of correlation value, which is exactly what
+ * the matrix displays. Correlation value is restored as signed square root of it, so it is meaningful only for
+ * correlations where square value is square of correlation (Pearson's R). Cramér's V and ANOVA values are
+ * kept as square values.
+ * <br>
+ * For {@code 20 000} rows with float precision the storage takes about {@code 800} MB instead of {@code 6.4} GB
+ * of two full {@code double[][]} arrays.
+ *
+ * @see CorrelationMatrix#CorrelationMatrix(java.util.List, java.util.List, CorrelationSource)
+ */
+public final class PackedCorrelations implements CorrelationSource
+{
+	/**
+	 * Maximum amount of rows, so the stored triangle fits into single array.
+	 */
+	public static final int MAX_LENGTH = 65_534;
+
+	/**
+	 * Amount of rows (and columns).
+	 */
+	private final int length;
+
+	/**
+	 * Stored values with float precision, {@code null} if values have double precision.
+	 */
+	private final /* Nullable */ float[] floatValues;
+
+	/**
+	 * Stored values with double precision, {@code null} if values have float precision.
+	 */
+	private final /* Nullable */ double[] doubleValues;
+
+	/**
+	 * Creates storage of given size where all cells are {@code NaN}.
+	 *
+	 * @param length amount of rows (and columns)
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 */
+	public PackedCorrelations(int length, boolean singlePrecision)
+	{
+		if (length < 0 || length > MAX_LENGTH)
+		{
+			throw new IllegalArgumentException("Unsupported length: " + length);
+		}
+		this.length = length;
+		int size = (int) triangleSize(length);
+		if (singlePrecision)
+		{
+			floatValues = new float[size];
+			doubleValues = null;
+			Arrays.fill(floatValues, Float.NaN);
+		}
+		else
+		{
+			floatValues = null;
+			doubleValues = new double[size];
+			Arrays.fill(doubleValues, Double.NaN);
+		}
+	}
+
+	/**
+	 * Creates storage with cells of given arrays which matrix displays, that are {@code [i][j]} for {@code i <= j}.
+	 * The other triangle of arrays isn't read, as matrix doesn't display it either.
+	 *
+	 * @param correlations two-dimensional array with correlation values. {@code NaN} means absence of correlation.
+	 * @param correlationsSqr two-dimensional array with square correlation values. {@code NaN} means absence of correlation.
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 * @return packed correlations
+	 */
+	public static PackedCorrelations pack(double[][] correlations, double[][] correlationsSqr, boolean singlePrecision)
+	{
+		if (correlations.length != correlationsSqr.length)
+		{
+			throw new IllegalArgumentException();
+		}
+		PackedCorrelations result = new PackedCorrelations(correlations.length, singlePrecision);
+		for (int i = 0; i < correlations.length; i++)
+		{
+			for (int j = 0; j <= i; j++)
+			{
+				// the stored cell (i, j) is the same as the displayed cell (j, i)
+				result.setCorrelation(i, j, correlations[j][i], correlationsSqr[j][i]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns position of cell in the lower triangle (including diagonal) of matrix, stored row by row.
+	 * Is shared with {@link MappedCorrelations}.
+	 *
+	 * @param length amount of rows in matrix
+	 * @param i row index
+	 * @param j column index
+	 * @return index of value in the stored triangle
+	 */
+	static long triangleIndex(int length, int i, int j)
+	{
+		if (i < 0 || j < 0 || i >= length || j >= length)
+		{
+			throw new IndexOutOfBoundsException("Cell " + i + ", " + j + " is out of " + length);
+		}
+		return i >= j ? (long) i * (i + 1) / 2 + j : (long) j * (j + 1) / 2 + i;
+	}
+
+	/**
+	 * Returns amount of values in the stored triangle.
+	 *
+	 * @param length amount of rows in matrix
+	 * @return size of the stored triangle
+	 */
+	static long triangleSize(int length)
+	{
+		return (long) length * (length + 1) / 2;
+	}
+
+	/**
+	 * Sets correlation of given cell and its symmetric cell.
+	 *
+	 * @param i row index
+	 * @param j column index
+	 * @param correlation correlation value, only its sign is stored. {@code NaN} means absence of correlation.
+	 * @param correlationSqr square correlation value. {@code NaN} means absence of correlation.
+	 */
+	@Override
+	public void setCorrelation(int i, int j, double correlation, double correlationSqr)
+	{
+		double value = correlation < 0 ? -Math.abs(correlationSqr) : Math.abs(correlationSqr);
+		int index = (int) triangleIndex(length, i, j);
+		if (floatValues != null)
+		{
+			floatValues[index] = (float) value;
+		}
+		else
+		{
+			doubleValues[index] = value;
+		}
+	}
+
+	@Override
+	public int length()
+	{
+		return length;
+	}
+
+	@Override
+	public double getValue(int i, int j)
+	{
+		int index = (int) triangleIndex(length, i, j);
+		return floatValues != null ? floatValues[index] : doubleValues[index];
+	}
+
+	@Override
+	public double getCorrelation(int i, int j)
+	{
+		double value = getValue(i, j);
+		return value < 0 ? -Math.sqrt(-value) : Math.sqrt(value);
+	}
+
+	@Override
+	public double getCorrelationSqr(int i, int j)
+	{
+		return Math.abs(getValue(i, j));
+	}
+}
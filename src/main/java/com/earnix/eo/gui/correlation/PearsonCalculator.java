@@ -0,0 +1,258 @@
+package com.earnix.eo.gui.correlation;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Calculates <a href="https://en.wikipedia.org/wiki/Pearson_correlation_coefficient">Pearson correlation coefficient</a>
+ * (R and R²) of all pairs of numeric columns.
+ * <br>
+ * Columns are centered with their means and scaled with inverted norms, then cross-products are accumulated by
+ * cache-sized tiles: columns are split into tiles of {@link #TILE_COLUMNS} columns and rows into chunks of
+ * {@link #CHUNK_ROWS} rows, so centered data of two tiles stays in processor cache while all their pairs are
+ * multiplied. Pairs of tiles are calculated concurrently and don't share any state, so memory consumption doesn't
+ * depend on amount of rows.
+ * <br>
+ * Columns shouldn't contain {@code NaN} values: correlations of such columns, as well as of constant columns,
+ * are {@code NaN}.
+ */
+public final class PearsonCalculator
+{
+	/**
+	 * Amount of columns in tile.
+	 */
+	private static final int TILE_COLUMNS = 32;
+
+	/**
+	 * Amount of rows in chunk, which are centered and multiplied at once.
+	 */
+	private static final int CHUNK_ROWS = 1024;
+
+	private PearsonCalculator()
+	{
+	}
+
+	/**
+	 * Calculates correlations of all pairs of given columns in common pool.
+	 *
+	 * @param columns numeric data, {@code columns[c][r]} is value of column {@code c} in row {@code r}
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 * @return correlations, row {@code c} of correlation matrix corresponds to column {@code c} of data
+	 */
+	public static PackedCorrelations calculate(double[][] columns, boolean singlePrecision)
+	{
+		PackedCorrelations result = new PackedCorrelations(columns.length, singlePrecision);
+		calculate(columns, IntStream.range(0, columns.length).toArray(), result, ForkJoinPool.commonPool());
+		return result;
+	}
+
+	/**
+	 * Calculates correlations of all pairs of given columns and stores them in given correlations.
+	 * Allows to calculate part of mixed-type matrix, where numeric columns are not adjacent.
+	 *
+	 * @param columns numeric data, {@code columns[c][r]} is value of column {@code c} in row {@code r}
+	 * @param indexes row of correlation matrix for each column
+	 * @param target correlations to store results in
+	 * @param pool pool to calculate in parallel, {@code null} to calculate in current thread
+	 */
+	public static void calculate(double[][] columns, int[] indexes, PackedCorrelations target,
+			/* Nullable */ ForkJoinPool pool)
+	{
+		Objects.requireNonNull(target);
+		if (columns.length != indexes.length)
+		{
+			throw new IllegalArgumentException();
+		}
+		int rows = columns.length > 0 ? columns[0].length : 0;
+		for (int c = 0; c < columns.length; c++)
+		{
+			if (columns[c].length != rows || indexes[c] < 0 || indexes[c] >= target.length())
+			{
+				throw new IllegalArgumentException();
+			}
+		}
+
+		// calculating means and inverted norms of centered columns
+		double[] means = new double[columns.length];
+		double[] inverseNorms = new double[columns.length];
+		Utilities.forEach(pool, IntStream.range(0, columns.length), c -> {
+			double[] column = columns[c];
+			double sum = 0;
+			for (double value : column)
+			{
+				sum += value;
+			}
+			double mean = sum / rows;
+			double squares = 0;
+			for (double value : column)
+			{
+				squares += (value - mean) * (value - mean);
+			}
+			means[c] = mean;
+			inverseNorms[c] = 1 / Math.sqrt(squares);
+		});
+
+		// calculating pairs of tiles on and below the diagonal
+		int tiles = (columns.length + TILE_COLUMNS - 1) / TILE_COLUMNS;
+		IntStream pairs = IntStream.range(0, tiles * tiles).filter(pair -> pair % tiles <= pair / tiles);
+		Utilities.forEach(pool, pairs,
+				pair -> calculateTiles(columns, means, inverseNorms, pair / tiles, pair % tiles, indexes, target));
+	}
+
+	/**
+	 * Calculates correlations of all pairs of columns from given tiles.
+	 *
+	 * @param columns numeric data
+	 * @param means column means
+	 * @param inverseNorms inverted norms of centered columns
+	 * @param tileA index of the first tile
+	 * @param tileB index of the second tile, not greater than the first one
+	 * @param indexes row of correlation matrix for each column
+	 * @param target correlations to store results in
+	 */
+	private static void calculateTiles(double[][] columns, double[] means, double[] inverseNorms, int tileA, int tileB,
+			int[] indexes, PackedCorrelations target)
+	{
+		int fromA = tileA * TILE_COLUMNS;
+		int fromB = tileB * TILE_COLUMNS;
+		int widthA = Math.min(TILE_COLUMNS, columns.length - fromA);
+		int widthB = Math.min(TILE_COLUMNS, columns.length - fromB);
+		int rows = columns[0].length;
+
+		double[][] chunkA = new double[widthA][CHUNK_ROWS];
+		double[][] chunkB = tileA == tileB ? chunkA : new double[widthB][CHUNK_ROWS];
+		double[][] products = new double[widthA][widthB];
+		for (int from = 0; from < rows; from += CHUNK_ROWS)
+		{
+			int length = Math.min(CHUNK_ROWS, rows - from);
+			center(columns, means, inverseNorms, fromA, widthA, from, length, chunkA);
+			if (chunkB != chunkA)
+			{
+				center(columns, means, inverseNorms, fromB, widthB, from, length, chunkB);
+			}
+			// multiplying pairs of columns by 2x2 blocks, so each loaded value is used twice
+			for (int a = 0; a < widthA; a += 2)
+			{
+				int widthBlockB = tileA == tileB ? a + 1 : widthB;
+				for (int b = 0; b < widthBlockB; b += 2)
+				{
+					if (a + 1 < widthA && b + 1 < widthB)
+					{
+						multiply(chunkA[a], chunkA[a + 1], chunkB[b], chunkB[b + 1], length, products, a, b);
+					}
+					else
+					{
+						for (int blockA = a; blockA < Math.min(a + 2, widthA); blockA++)
+						{
+							for (int blockB = b; blockB < Math.min(b + 2, widthB); blockB++)
+							{
+								products[blockA][blockB] += dot(chunkA[blockA], chunkB[blockB], length);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		for (int a = 0; a < widthA; a++)
+		{
+			int lastB = tileA == tileB ? a : widthB - 1;
+			for (int b = 0; b <= lastB; b++)
+			{
+				// rounding errors may slightly exceed the range
+				double correlation = Math.max(-1, Math.min(1, products[a][b]));
+				target.setCorrelation(indexes[fromA + a], indexes[fromB + b], correlation, correlation * correlation);
+			}
+		}
+	}
+
+	/**
+	 * Copies given chunk of given columns, centered with their means and scaled with their inverted norms.
+	 *
+	 * @param columns numeric data
+	 * @param means column means
+	 * @param inverseNorms inverted norms of centered columns
+	 * @param fromColumn index of the first column
+	 * @param width amount of columns
+	 * @param fromRow index of the first row
+	 * @param length amount of rows
+	 * @param chunk destination, {@code chunk[c][r]} is value of column {@code fromColumn + c} in row {@code fromRow + r}
+	 */
+	private static void center(double[][] columns, double[] means, double[] inverseNorms, int fromColumn, int width,
+			int fromRow, int length, double[][] chunk)
+	{
+		for (int c = 0; c < width; c++)
+		{
+			double[] column = columns[fromColumn + c];
+			double[] centered = chunk[c];
+			double mean = means[fromColumn + c];
+			double inverseNorm = inverseNorms[fromColumn + c];
+			for (int r = 0; r < length; r++)
+			{
+				centered[r] = (column[fromRow + r] - mean) * inverseNorm;
+			}
+		}
+	}
+
+	/**
+	 * Adds dot products of two pairs of vectors to given 2x2 block of products.
+	 *
+	 * @param x0 the first vector of the first pair
+	 * @param x1 the second vector of the first pair
+	 * @param y0 the first vector of the second pair
+	 * @param y1 the second vector of the second pair
+	 * @param length amount of elements to multiply
+	 * @param products products to add to
+	 * @param a row of block in products
+	 * @param b column of block in products
+	 */
+	private static void multiply(double[] x0, double[] x1, double[] y0, double[] y1, int length, double[][] products,
+			int a, int b)
+	{
+		double sum00 = 0;
+		double sum01 = 0;
+		double sum10 = 0;
+		double sum11 = 0;
+		for (int r = 0; r < length; r++)
+		{
+			sum00 += x0[r] * y0[r];
+			sum01 += x0[r] * y1[r];
+			sum10 += x1[r] * y0[r];
+			sum11 += x1[r] * y1[r];
+		}
+		products[a][b] += sum00;
+		products[a][b + 1] += sum01;
+		products[a + 1][b] += sum10;
+		products[a + 1][b + 1] += sum11;
+	}
+
+	/**
+	 * Calculates dot product of given vectors. Uses several independent sums, so multiplications are pipelined.
+	 *
+	 * @param x the first vector
+	 * @param y the second vector
+	 * @param length amount of elements to multiply
+	 * @return dot product
+	 */
+	private static double dot(double[] x, double[] y, int length)
+	{
+		double sum0 = 0;
+		double sum1 = 0;
+		double sum2 = 0;
+		double sum3 = 0;
+		int r = 0;
+		for (; r + 3 < length; r += 4)
+		{
+			sum0 += x[r] * y[r];
+			sum1 += x[r + 1] * y[r + 1];
+			sum2 += x[r + 2] * y[r + 2];
+			sum3 += x[r + 3] * y[r + 3];
+		}
+		for (; r < length; r++)
+		{
+			sum0 += x[r] * y[r];
+		}
+		return (sum0 + sum1) + (sum2 + sum3);
+	}
+}
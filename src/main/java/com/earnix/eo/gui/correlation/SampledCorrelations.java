@@ -0,0 +1,328 @@
+package com.earnix.eo.gui.correlation;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Approximate Pearson correlations of numeric columns, calculated on uniform random sample of rows. Calculation takes
+ * time proportional to sample size instead of amount of rows, so the first usable matrix of huge data set appears
+ * quickly, and exact values may be calculated later with {@link #refine(CorrelationMatrix, double[][], boolean)}.
+ * <br>
+ * Sample is chosen with reservoir sampling (algorithm L), which skips rows not taken into the sample without
+ * generating random numbers for them. Precision of each cell is reported as width of its {@code 95%} confidence
+ * interval, obtained with Fisher transformation, and is displayed in tooltip.
+ * <br>
+ * Data which doesn't fit in memory may be given as iterator of row batches, like ones added to
+ * {@link CorrelationAccumulator}. Then only sampled rows are kept while batches are read, and exact values are
+ * accumulated from the second pass over batches by {@link #refine(CorrelationMatrix, Iterator, boolean)}.
+ * <br>
+ * Source is read-only.
+ */
+public final class SampledCorrelations implements CorrelationSource
+{
+	/**
+	 * Quantile of standard normal distribution for {@code 95%} confidence.
+	 */
+	private static final double CONFIDENCE_QUANTILE = 1.959964;
+
+	/**
+	 * Correlations of sampled rows.
+	 */
+	private final PackedCorrelations correlations;
+
+	/**
+	 * Amount of sampled rows.
+	 */
+	private final int sampleSize;
+
+	/**
+	 * Creates source from correlations of sampled rows.
+	 *
+	 * @param correlations correlations of sampled rows
+	 * @param sampleSize amount of sampled rows
+	 */
+	private SampledCorrelations(PackedCorrelations correlations, int sampleSize)
+	{
+		this.correlations = correlations;
+		this.sampleSize = sampleSize;
+	}
+
+	/**
+	 * Calculates correlations of all pairs of given columns on random sample of rows. All rows are given in memory,
+	 * see {@link #calculate(Iterator, int, int, Random, boolean)} for data which doesn't fit there.
+	 *
+	 * @param columns numeric data, {@code columns[c][r]} is value of column {@code c} in row {@code r}
+	 * @param sampleSize amount of rows to sample, all rows are used if there are not more of them
+	 * @param random source of randomness
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 * @return approximate correlations, row {@code c} of correlation matrix corresponds to column {@code c} of data
+	 */
+	public static SampledCorrelations calculate(double[][] columns, int sampleSize, Random random,
+			boolean singlePrecision)
+	{
+		if (sampleSize < 1)
+		{
+			throw new IllegalArgumentException("Unsupported sample size: " + sampleSize);
+		}
+		int rows = columns.length > 0 ? columns[0].length : 0;
+		int[] sample = sample(rows, sampleSize, random);
+
+		double[][] sampledColumns = new double[columns.length][sample.length];
+		for (int c = 0; c < columns.length; c++)
+		{
+			if (columns[c].length != rows)
+			{
+				throw new IllegalArgumentException();
+			}
+			for (int k = 0; k < sample.length; k++)
+			{
+				sampledColumns[c][k] = columns[c][sample[k]];
+			}
+		}
+		return new SampledCorrelations(PearsonCalculator.calculate(sampledColumns, singlePrecision), sample.length);
+	}
+
+	/**
+	 * Calculates correlations of all pairs of columns on random sample of rows, which are read from given batches
+	 * once. Only sampled rows are kept in memory.
+	 *
+	 * @param batches batches of data rows, {@code rows[r][c]} is value of column {@code c} in row {@code r}
+	 * @param columns amount of columns
+	 * @param sampleSize amount of rows to sample, all rows are used if there are not more of them
+	 * @param random source of randomness
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 * @return approximate correlations, row {@code c} of correlation matrix corresponds to column {@code c} of data
+	 */
+	public static SampledCorrelations calculate(Iterator<double[][]> batches, int columns, int sampleSize,
+			Random random, boolean singlePrecision)
+	{
+		if (sampleSize < 1)
+		{
+			throw new IllegalArgumentException("Unsupported sample size: " + sampleSize);
+		}
+		if (columns < 0 || columns > PackedCorrelations.MAX_LENGTH)
+		{
+			throw new IllegalArgumentException("Unsupported amount of columns: " + columns);
+		}
+
+		List<double[]> reservoir = new ArrayList<>();
+		double weight = 0;
+		long nextRow = -1;
+		long row = 0;
+		while (batches.hasNext())
+		{
+			for (double[] values : batches.next())
+			{
+				if (values.length != columns)
+				{
+					throw new IllegalArgumentException("Row has " + values.length + " values instead of " + columns);
+				}
+				if (reservoir.size() < sampleSize)
+				{
+					// rows may be reused by the caller, so sampled ones are copied
+					reservoir.add(values.clone());
+					if (reservoir.size() == sampleSize)
+					{
+						weight = nextWeight(1, sampleSize, random);
+						nextRow = nextRow(row, weight, random);
+					}
+				}
+				else if (row == nextRow)
+				{
+					reservoir.set(random.nextInt(sampleSize), values.clone());
+					weight = nextWeight(weight, sampleSize, random);
+					nextRow = nextRow(row, weight, random);
+				}
+				row++;
+			}
+		}
+
+		double[][] sampledColumns = new double[columns][reservoir.size()];
+		for (int k = 0; k < reservoir.size(); k++)
+		{
+			double[] values = reservoir.get(k);
+			for (int c = 0; c < columns; c++)
+			{
+				sampledColumns[c][k] = values[c];
+			}
+		}
+		return new SampledCorrelations(PearsonCalculator.calculate(sampledColumns, singlePrecision),
+				reservoir.size());
+	}
+
+	/**
+	 * Chooses uniform random sample of rows.
+	 *
+	 * @param rows amount of rows
+	 * @param sampleSize amount of rows to sample
+	 * @param random source of randomness
+	 * @return sorted indexes of sampled rows, so they are read sequentially
+	 */
+	static int[] sample(int rows, int sampleSize, Random random)
+	{
+		int[] reservoir = new int[Math.min(rows, sampleSize)];
+		for (int k = 0; k < reservoir.length; k++)
+		{
+			reservoir[k] = k;
+		}
+		if (reservoir.length < rows)
+		{
+			double weight = nextWeight(1, reservoir.length, random);
+			long row = reservoir.length - 1;
+			while (true)
+			{
+				row = nextRow(row, weight, random);
+				if (row >= rows)
+				{
+					break;
+				}
+				reservoir[random.nextInt(reservoir.length)] = (int) row;
+				weight = nextWeight(weight, reservoir.length, random);
+			}
+		}
+		Arrays.sort(reservoir);
+		return reservoir;
+	}
+
+	/**
+	 * Returns weight of algorithm L after the next sampled row.
+	 *
+	 * @param weight current weight, {@code 1} before the reservoir is filled
+	 * @param sampleSize size of reservoir
+	 * @param random source of randomness
+	 * @return next weight
+	 */
+	private static double nextWeight(double weight, int sampleSize, Random random)
+	{
+		// random values are taken from (0, 1], so their logarithms are finite
+		return weight * Math.exp(Math.log(1 - random.nextDouble()) / sampleSize);
+	}
+
+	/**
+	 * Returns index of the next row to take into the full reservoir, skipping rows without random numbers.
+	 *
+	 * @param row index of the last sampled row
+	 * @param weight current weight of algorithm L
+	 * @param random source of randomness
+	 * @return index of the next sampled row
+	 */
+	private static long nextRow(long row, double weight, Random random)
+	{
+		return row + (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - weight)) + 1;
+	}
+
+	/**
+	 * Calculates exact correlations in common pool and displays them in given matrix instead of these approximate
+	 * ones, keeping its titles and data types. Matrix is not changed if it doesn't display this source anymore.
+	 * Should be called in event dispatch thread.
+	 *
+	 * @param matrix matrix which displays this source
+	 * @param columns the same data which this source was calculated from
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 * @return future which is completed with exact correlations after they are displayed
+	 */
+	public CompletableFuture<PackedCorrelations> refine(CorrelationMatrix matrix, double[][] columns,
+			boolean singlePrecision)
+	{
+		if (columns.length != length())
+		{
+			throw new IllegalArgumentException();
+		}
+		return CompletableFuture.supplyAsync(() -> PearsonCalculator.calculate(columns, singlePrecision))
+				.thenApplyAsync(exact -> {
+					if (matrix.correlations == this)
+					{
+						matrix.setData(matrix.getDataTypes(), matrix.getTitles(), exact);
+					}
+					return exact;
+				}, SwingUtilities::invokeLater);
+	}
+
+	/**
+	 * Accumulates exact correlations from given batches in common pool and displays them in given matrix instead of
+	 * these approximate ones, keeping its titles and data types. Only one batch is kept in memory at a time, see
+	 * {@link CorrelationAccumulator}. Matrix is not changed if it doesn't display this source anymore.
+	 * Should be called in event dispatch thread.
+	 *
+	 * @param matrix matrix which displays this source
+	 * @param batches batches of the same rows which this source was calculated from
+	 * @param singlePrecision {@code true} to store values as floats, {@code false} to store them as doubles
+	 * @return future which is completed with exact correlations after they are displayed
+	 */
+	public CompletableFuture<PackedCorrelations> refine(CorrelationMatrix matrix, Iterator<double[][]> batches,
+			boolean singlePrecision)
+	{
+		return CompletableFuture.supplyAsync(() -> {
+			CorrelationAccumulator accumulator = new CorrelationAccumulator(length());
+			while (batches.hasNext())
+			{
+				accumulator.add(batches.next());
+			}
+			return accumulator.snapshot(singlePrecision);
+		}).thenApplyAsync(exact -> {
+			if (matrix.correlations == this)
+			{
+				matrix.setData(matrix.getDataTypes(), matrix.getTitles(), exact);
+			}
+			return exact;
+		}, SwingUtilities::invokeLater);
+	}
+
+	/**
+	 * @return amount of sampled rows
+	 */
+	public int getSampleSize()
+	{
+		return sampleSize;
+	}
+
+	@Override
+	public int length()
+	{
+		return correlations.length();
+	}
+
+	@Override
+	public double getCorrelation(int i, int j)
+	{
+		return correlations.getCorrelation(i, j);
+	}
+
+	@Override
+	public double getCorrelationSqr(int i, int j)
+	{
+		return correlations.getCorrelationSqr(i, j);
+	}
+
+	@Override
+	public double getValue(int i, int j)
+	{
+		return correlations.getValue(i, j);
+	}
+
+	/**
+	 * Returns width of {@code 95%} confidence interval of correlation value, which is symmetric in Fisher
+	 * transformation {@code atanh(R)}, where standard error is {@code 1 / sqrt(n - 3)}.
+	 *
+	 * @param i row index
+	 * @param j column index
+	 * @return interval width, {@code NaN} if correlation is absent or sample is too small
+	 */
+	@Override
+	public double getConfidenceWidth(int i, int j)
+	{
+		double correlation = getCorrelation(i, j);
+		if (sampleSize <= 3 || Double.isNaN(correlation))
+		{
+			return Double.NaN;
+		}
+		double z = 0.5 * Math.log((1 + correlation) / (1 - correlation));
+		double radius = CONFIDENCE_QUANTILE / Math.sqrt(sampleSize - 3);
+		return Math.tanh(z + radius) - Math.tanh(z - radius);
+	}
+}
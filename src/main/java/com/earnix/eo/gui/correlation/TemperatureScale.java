@@ -6,15 +6,13 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.LinearGradientPaint;
-import java.awt.Paint;
 import java.awt.RenderingHints;
-import java.awt.geom.Point2D;
 
 /**
  * Informative temperature scale. Purpose - to improve visual understanding of correlation
  * by color of the cell in {@link CorrelationMatrixGrid}. Main parameters - {@link CorrelationMatrix#positiveColor} and
- * {@link CorrelationMatrix#negativeColor}. Supposed to be used only as part of {@link CorrelationMatrix}.
+ * {@link CorrelationMatrix#negativeColor}. Gradient is taken from {@link CorrelationMatrix#cellColors}, so it matches
+ * cell colors exactly. Supposed to be used only as part of {@link CorrelationMatrix}.
  */
 class TemperatureScale extends JPanel
 {
@@ -48,15 +46,16 @@ class TemperatureScale extends JPanel
 		g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
 		super.paintComponent(g);
 
-		// painting gradient rect
+		// painting gradient rect with the same colors as cells have, from 1 at the top to -1 at the bottom
 		float gradientWidth = matrix.temperatureScaleGradientWidth;
-		Point2D.Double gradientEnd = new Point2D.Double();
-		gradientEnd.setLocation(0, getHeight());
-		float[] gradientFractions = new float[] { 0, 0.5f, 1 };
-		Color[] gradientColors = new Color[] { matrix.positiveColor, Color.WHITE, matrix.negativeColor };
-		Paint paint = new LinearGradientPaint(0, 0, 0, getHeight(), gradientFractions, gradientColors);
-		g2d.setPaint(paint);
-		g2d.fillRect(0, 0, (int) gradientWidth, getHeight());
+		CellColors colors = matrix.cellColors;
+		int height = getHeight();
+		for (int y = 0; y < height; y++)
+		{
+			double value = height > 1 ? 1 - 2.0 * y / (height - 1) : 0;
+			g2d.setColor(colors.getColor(value));
+			g2d.fillRect(0, y, (int) gradientWidth, 1);
+		}
 
 		// painting labels
 		g2d.setColor(Color.black);
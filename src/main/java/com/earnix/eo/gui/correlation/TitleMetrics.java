@@ -0,0 +1,146 @@
+package com.earnix.eo.gui.correlation;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cache of rows titles measurements, which are required for every layout pass.
+ * Keeps abbreviated titles and their advance widths for reference font size, so widths for other sizes
+ * are calculated by scaling instead of measuring each title again. Cache is never updated, it's created again
+ * whenever titles or font of matrix are changed, see {@link #matches(List, Font)}.
+ * <br>
+ * Font sizing not always is proportional, so width of the longest title is measured exactly, see
+ * {@link #getMaxWidth(Font)}.
+ */
+class TitleMetrics
+{
+	/**
+	 * Size of font which titles are measured with. Large size makes scaling errors negligible.
+	 */
+	private static final float REFERENCE_SIZE = 100f;
+
+	/**
+	 * Copy of titles which are measured, to check whether cache is still valid. Is copied, because list given to
+	 * matrix may be changed in place.
+	 */
+	private final List<String> titles;
+
+	/**
+	 * Font which titles are displayed with, its size is not taken into account.
+	 */
+	private final Font font;
+
+	/**
+	 * Provides metrics for given font.
+	 */
+	private final Function<Font, FontMetrics> fontMetrics;
+
+	/**
+	 * Maximum title length in characters.
+	 */
+	private final short abbreviationLength;
+
+	/**
+	 * Titles abbreviated to {@link #abbreviationLength}.
+	 */
+	private final List<String> abbreviatedTitles;
+
+	/**
+	 * Advance widths of abbreviated titles for reference font size.
+	 */
+	private final int[] widths;
+
+	/**
+	 * Index of the widest title, {@code -1} if there are no titles.
+	 */
+	private final int maxIndex;
+
+	/**
+	 * Measures given titles.
+	 *
+	 * @param titles titles to measure
+	 * @param font font which titles are displayed with
+	 * @param fontMetrics provides metrics for given font
+	 * @param abbreviationLength maximum title length in characters
+	 */
+	TitleMetrics(List<String> titles, Font font, Function<Font, FontMetrics> fontMetrics, short abbreviationLength)
+	{
+		this.titles = new ArrayList<>(titles);
+		this.font = font;
+		this.fontMetrics = fontMetrics;
+		this.abbreviationLength = abbreviationLength;
+		this.abbreviatedTitles = new ArrayList<>(titles.size());
+		this.widths = new int[titles.size()];
+
+		FontMetrics referenceMetrics = fontMetrics.apply(font.deriveFont(REFERENCE_SIZE));
+		int maxIndex = -1;
+		for (int i = 0; i < titles.size(); i++)
+		{
+			String abbreviatedTitle = Utilities.abbreviate(titles.get(i), abbreviationLength);
+			abbreviatedTitles.add(abbreviatedTitle);
+			widths[i] = referenceMetrics.stringWidth(abbreviatedTitle);
+			if (maxIndex < 0 || widths[i] > widths[maxIndex])
+			{
+				maxIndex = i;
+			}
+		}
+		this.maxIndex = maxIndex;
+	}
+
+	/**
+	 * Checks whether this cache contains measurements of given titles for given font. Titles are compared by content,
+	 * which is fast for the same title strings.
+	 *
+	 * @param titles displayed titles
+	 * @param font font which titles are displayed with, its size is not taken into account
+	 * @return {@code true} if cache is valid
+	 */
+	boolean matches(List<String> titles, Font font)
+	{
+		return this.titles.equals(titles) && this.font.equals(font);
+	}
+
+	/**
+	 * @return amount of titles
+	 */
+	int length()
+	{
+		return widths.length;
+	}
+
+	/**
+	 * Returns abbreviated title.
+	 *
+	 * @param index title index
+	 * @return title abbreviated to maximum title length
+	 */
+	String getAbbreviatedTitle(int index)
+	{
+		return abbreviatedTitles.get(index);
+	}
+
+	/**
+	 * Returns approximate width of the widest abbreviated title for given font size, scaled from reference size.
+	 *
+	 * @param size font size
+	 * @return width in pixels, {@code 0} if there are no titles
+	 */
+	double getApproximateMaxWidth(float size)
+	{
+		return maxIndex < 0 ? 0 : widths[maxIndex] * size / REFERENCE_SIZE;
+	}
+
+	/**
+	 * Returns exact width of the widest abbreviated title for given font. Only the widest title is measured.
+	 *
+	 * @param font font of the same family and style as this cache was created for
+	 * @return width in pixels, {@code 0} if there are no titles
+	 */
+	double getMaxWidth(Font font)
+	{
+		return maxIndex < 0 ? 0 : fontMetrics.apply(font).stringWidth(abbreviatedTitles.get(maxIndex));
+	}
+}
@@ -1,6 +1,8 @@
 package com.earnix.eo.gui.correlation;
 
-import java.awt.Color;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Utilities, used by correlation matrix component.
@@ -8,19 +10,20 @@ import java.awt.Color;
 class Utilities
 {
 	/**
-	 * Interpolates (mixes) given colors by applying proportional addition of color components.
+	 * Interpolates (mixes) given packed RGB colors by applying proportional addition of color components.
+	 * Alpha components are ignored, resulting color is opaque.
 	 *
-	 * @param color1 the first color to mix
-	 * @param color2 the second color to mix
+	 * @param rgb1 the first color to mix
+	 * @param rgb2 the second color to mix
 	 * @param interpolation the proportion of first color in resulting one
-	 * @return the resulting mixed color
+	 * @return the resulting mixed color as packed ARGB value
 	 */
-	static Color interpolateColor(Color color1, Color color2, double interpolation)
+	static int interpolateRgb(int rgb1, int rgb2, double interpolation)
 	{
-		int red = (int) (color1.getRed() * interpolation + color2.getRed() * (1 - interpolation));
-		int green = (int) (color1.getGreen() * interpolation + color2.getGreen() * (1 - interpolation));
-		int blue = (int) (color1.getBlue() * interpolation + color2.getBlue() * (1 - interpolation));
-		return new Color(red, green, blue);
+		int red = (int) (((rgb1 >> 16) & 0xFF) * interpolation + ((rgb2 >> 16) & 0xFF) * (1 - interpolation));
+		int green = (int) (((rgb1 >> 8) & 0xFF) * interpolation + ((rgb2 >> 8) & 0xFF) * (1 - interpolation));
+		int blue = (int) ((rgb1 & 0xFF) * interpolation + (rgb2 & 0xFF) * (1 - interpolation));
+		return 0xFF000000 | red << 16 | green << 8 | blue;
 	}
 
 	/**
@@ -61,4 +64,23 @@ class Utilities
 	{
 		return label.length() > length ? label.substring(0, length - 3) + "..." : label;
 	}
+
+	/**
+	 * Runs given action for each of given indexes, in parallel if pool is given.
+	 *
+	 * @param pool pool to run in parallel, {@code null} to run in current thread
+	 * @param indexes indexes to process
+	 * @param action action to run
+	 */
+	static void forEach(/* Nullable */ ForkJoinPool pool, IntStream indexes, IntConsumer action)
+	{
+		if (pool != null)
+		{
+			pool.submit(() -> indexes.parallel().forEach(action)).join();
+		}
+		else
+		{
+			indexes.forEach(action);
+		}
+	}
 }
@@ -0,0 +1,329 @@
+package com.earnix.eo.gui.correlation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Multi-resolution pyramid of aggregated cell values (see {@link CorrelationSource#getValue(int, int)}).
+ * Level {@code k} splits cells below the diagonal into square blocks of {@code 2^k} cells and stores maximum by
+ * absolute value and mean of each block, skipping {@code NaN} values. Blocks are stored in packed lower-triangular
+ * arrays. Levels with more than {@link #MAX_BLOCKS} blocks per side are not stored, so memory consumption doesn't
+ * depend on matrix length.
+ * <br>
+ * Is used to display one aggregated value per device pixel, when cells are smaller than a pixel.
+ */
+class ValuesPyramid
+{
+	/**
+	 * Maximum amount of blocks per side in the finest stored level.
+	 */
+	static final int MAX_BLOCKS = 2048;
+
+	/**
+	 * Matrix length.
+	 */
+	private final int length;
+
+	/**
+	 * The finest stored level.
+	 */
+	private final int minLevel;
+
+	/**
+	 * Block values with maximum absolute value, per stored level.
+	 */
+	private final float[][] maximums;
+
+	/**
+	 * Block means, per stored level.
+	 */
+	private final float[][] means;
+
+	/**
+	 * Amount of not {@code NaN} values in block, per stored level.
+	 */
+	private final int[][] counts;
+
+	/**
+	 * Builds pyramid for given values. Requires single pass over all cells below the diagonal.
+	 *
+	 * @param correlations source to get values from
+	 * @param pool pool to build the finest level in parallel, {@code null} to build in current thread
+	 */
+	ValuesPyramid(CorrelationSource correlations, /* Nullable */ ForkJoinPool pool)
+	{
+		length = correlations.length();
+		int level = 1;
+		while (blocksCount(length, level) > MAX_BLOCKS)
+		{
+			level++;
+		}
+		minLevel = level;
+		int maxLevel = level;
+		while (blocksCount(length, maxLevel) > 1)
+		{
+			maxLevel++;
+		}
+		maximums = new float[maxLevel - minLevel + 1][];
+		means = new float[maxLevel - minLevel + 1][];
+		counts = new int[maxLevel - minLevel + 1][];
+
+		buildFinestLevel(correlations, pool);
+		for (int k = 1; k < maximums.length; k++)
+		{
+			buildLevel(k);
+		}
+	}
+
+	/**
+	 * Returns the finest level, which has blocks not larger then given amount of cells.
+	 * Levels finer then stored ones are substituted with the finest stored level.
+	 *
+	 * @param cellsPerPixel amount of cells in one device pixel
+	 * @return pyramid level, {@code 0} if cells are not smaller than a pixel
+	 */
+	int getLevel(double cellsPerPixel)
+	{
+		int level = 31 - Integer.numberOfLeadingZeros((int) cellsPerPixel);
+		if (level < 1)
+		{
+			return 0;
+		}
+		return Math.min(Math.max(level, minLevel), minLevel + maximums.length - 1);
+	}
+
+	/**
+	 * Returns aggregated value of block on given level, which contains given cell.
+	 *
+	 * @param level pyramid level, returned by {@link #getLevel(double)}
+	 * @param i row index of cell below the diagonal
+	 * @param j column index of cell below the diagonal
+	 * @param aggregation type of aggregated value
+	 * @return aggregated value, {@code NaN} if all block values are {@code NaN}
+	 */
+	double getValue(int level, int i, int j, CellsAggregation aggregation)
+	{
+		int index = index(i >> level, j >> level);
+		float[] values = aggregation == CellsAggregation.MEAN ? means[level - minLevel] : maximums[level - minLevel];
+		return values[index];
+	}
+
+	/**
+	 * Re-aggregates blocks which contain given changed cells, on all stored levels.
+	 *
+	 * @param correlations source to get values from
+	 * @param fromI index of the first changed column
+	 * @param fromJ index of the first changed row
+	 * @param toI index of the column after the last changed one
+	 * @param toJ index of the row after the last changed one
+	 */
+	void update(CorrelationSource correlations, int fromI, int fromJ, int toI, int toJ)
+	{
+		int fromBi = fromI >> minLevel;
+		int fromBj = fromJ >> minLevel;
+		int toBi = (toI - 1) >> minLevel;
+		int toBj = (toJ - 1) >> minLevel;
+		for (int bj = fromBj; bj <= toBj; bj++)
+		{
+			for (int bi = fromBi; bi <= Math.min(toBi, bj); bi++)
+			{
+				aggregateBlock(correlations, bi, bj);
+			}
+		}
+		for (int k = 1; k < maximums.length; k++)
+		{
+			fromBi >>= 1;
+			fromBj >>= 1;
+			toBi >>= 1;
+			toBj >>= 1;
+			for (int bj = fromBj; bj <= toBj; bj++)
+			{
+				for (int bi = fromBi; bi <= Math.min(toBi, bj); bi++)
+				{
+					aggregateBlock(k, bi, bj);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Aggregates matrix values into the finest stored level.
+	 *
+	 * @param correlations source to get values from
+	 * @param pool pool to aggregate block rows in parallel, {@code null} to aggregate in current thread
+	 */
+	private void buildFinestLevel(CorrelationSource correlations, /* Nullable */ ForkJoinPool pool)
+	{
+		int blocks = blocksCount(length, minLevel);
+		maximums[0] = new float[blocks * (blocks + 1) / 2];
+		means[0] = new float[maximums[0].length];
+		counts[0] = new int[maximums[0].length];
+		Arrays.fill(maximums[0], Float.NaN);
+		Arrays.fill(means[0], Float.NaN);
+
+		// block rows don't share blocks, so they are aggregated independently
+		Utilities.forEach(pool, IntStream.range(0, blocks), bj -> aggregateBlockRow(correlations, bj));
+	}
+
+	/**
+	 * Aggregates matrix values of given block row into the finest stored level.
+	 *
+	 * @param correlations source to get values from
+	 * @param bj block row index
+	 */
+	private void aggregateBlockRow(CorrelationSource correlations, int bj)
+	{
+		float[] maximum = maximums[0];
+		int[] count = counts[0];
+		double[] sums = new double[bj + 1];
+		int lastRow = Math.min((bj + 1) << minLevel, length);
+		for (int j = bj << minLevel; j < lastRow; j++)
+		{
+			// aggregating only cells below the diagonal
+			for (int i = 0; i < j; i++)
+			{
+				double value = correlations.getValue(i, j);
+				if (!Double.isNaN(value))
+				{
+					int bi = i >> minLevel;
+					int index = index(bi, bj);
+					sums[bi] += value;
+					count[index]++;
+					if (!(Math.abs(value) <= Math.abs(maximum[index])))
+					{
+						maximum[index] = (float) value;
+					}
+				}
+			}
+		}
+		for (int bi = 0; bi <= bj; bi++)
+		{
+			int index = index(bi, bj);
+			if (count[index] > 0)
+			{
+				means[0][index] = (float) (sums[bi] / count[index]);
+			}
+		}
+	}
+
+	/**
+	 * Aggregates matrix values of given block of the finest stored level.
+	 *
+	 * @param correlations source to get values from
+	 * @param bi block column index
+	 * @param bj block row index, not less than column index
+	 */
+	private void aggregateBlock(CorrelationSource correlations, int bi, int bj)
+	{
+		float maximum = Float.NaN;
+		double sum = 0;
+		int count = 0;
+		int lastRow = Math.min((bj + 1) << minLevel, length);
+		int lastColumn = Math.min((bi + 1) << minLevel, length);
+		for (int j = bj << minLevel; j < lastRow; j++)
+		{
+			// aggregating only cells below the diagonal
+			for (int i = bi << minLevel; i < Math.min(lastColumn, j); i++)
+			{
+				double value = correlations.getValue(i, j);
+				if (!Double.isNaN(value))
+				{
+					sum += value;
+					count++;
+					if (!(Math.abs(value) <= Math.abs(maximum)))
+					{
+						maximum = (float) value;
+					}
+				}
+			}
+		}
+		int index = index(bi, bj);
+		maximums[0][index] = maximum;
+		means[0][index] = count > 0 ? (float) (sum / count) : Float.NaN;
+		counts[0][index] = count;
+	}
+
+	/**
+	 * Builds given stored level by aggregating blocks of previous (finer) stored level.
+	 *
+	 * @param k index of stored level
+	 */
+	private void buildLevel(int k)
+	{
+		int blocks = blocksCount(length, minLevel + k);
+		maximums[k] = new float[blocks * (blocks + 1) / 2];
+		means[k] = new float[maximums[k].length];
+		counts[k] = new int[maximums[k].length];
+		for (int bj = 0; bj < blocks; bj++)
+		{
+			for (int bi = 0; bi <= bj; bi++)
+			{
+				aggregateBlock(k, bi, bj);
+			}
+		}
+	}
+
+	/**
+	 * Aggregates given block of stored level from up to four blocks of previous (finer) stored level.
+	 *
+	 * @param k index of stored level
+	 * @param bi block column index
+	 * @param bj block row index, not less than column index
+	 */
+	private void aggregateBlock(int k, int bi, int bj)
+	{
+		float[] finerMaximum = maximums[k - 1];
+		float[] finerMean = means[k - 1];
+		int[] finerCount = counts[k - 1];
+		int finerBlocks = blocksCount(length, minLevel + k - 1);
+
+		float maximum = Float.NaN;
+		double sum = 0;
+		int count = 0;
+		for (int finerBj = bj * 2; finerBj < Math.min(bj * 2 + 2, finerBlocks); finerBj++)
+		{
+			for (int finerBi = bi * 2; finerBi <= Math.min(bi * 2 + 1, finerBj); finerBi++)
+			{
+				int finerIndex = index(finerBi, finerBj);
+				if (finerCount[finerIndex] > 0)
+				{
+					sum += (double) finerMean[finerIndex] * finerCount[finerIndex];
+					count += finerCount[finerIndex];
+					if (!(Math.abs(finerMaximum[finerIndex]) <= Math.abs(maximum)))
+					{
+						maximum = finerMaximum[finerIndex];
+					}
+				}
+			}
+		}
+		int index = index(bi, bj);
+		maximums[k][index] = maximum;
+		means[k][index] = count > 0 ? (float) (sum / count) : Float.NaN;
+		counts[k][index] = count;
+	}
+
+	/**
+	 * Returns amount of blocks per side on given level.
+	 *
+	 * @param length matrix length
+	 * @param level pyramid level
+	 * @return amount of blocks
+	 */
+	private static int blocksCount(int length, int level)
+	{
+		return ((length - 1) >> level) + 1;
+	}
+
+	/**
+	 * Returns index of block in packed lower-triangular array of level's blocks.
+	 *
+	 * @param bi block column index
+	 * @param bj block row index, not less than column index
+	 * @return array index
+	 */
+	private static int index(int bi, int bj)
+	{
+		return bj * (bj + 1) / 2 + bi;
+	}
+}
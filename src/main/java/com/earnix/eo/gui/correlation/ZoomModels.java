@@ -0,0 +1,309 @@
+package com.earnix.eo.gui.correlation;
+
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextHitInfo;
+import java.awt.font.TextLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cache of zoom models for single layout of grid. Zoom font, its metrics and sizes of zoom cells don't depend on
+ * zoomed area, so they are created once. Each title is measured and abbreviated at most once, and models are
+ * memoized by zoom origin, so dragging the zoom across the grid only looks them up after the first pass.
+ */
+class ZoomModels
+{
+	/**
+	 * How much of component's height should take zoom area grid.
+	 */
+	private static final float CELLS_PROPORTION = 0.25f;
+
+	/**
+	 * Maximum amount of memoized models, the least recently used ones are dropped.
+	 */
+	private static final int MAX_MODELS = 4096;
+
+	/**
+	 * Measurements of rows titles, to check whether cache is still valid.
+	 */
+	private final TitleMetrics titleMetrics;
+
+	/**
+	 * Width and height of zoom grid in cells.
+	 */
+	private final int length;
+
+	/**
+	 * Cell size of main grid.
+	 */
+	private final double gridCellSize;
+
+	/**
+	 * Width of main grid without borders.
+	 */
+	private final double gridWidth;
+
+	/**
+	 * Height of main grid without borders.
+	 */
+	private final double gridHeight;
+
+	/**
+	 * Width and height of zoom grid in pixels.
+	 */
+	private final double cellsSize;
+
+	/**
+	 * Cell width and height in zoom grid.
+	 */
+	private final double cellSize;
+
+	/**
+	 * Margins of zoom grid title labels.
+	 */
+	private final double labelsMargin;
+
+	/**
+	 * Font of zoom labels.
+	 */
+	private final Font font;
+
+	/**
+	 * Metrics of {@link #font}.
+	 */
+	private final FontMetrics fontMetrics;
+
+	/**
+	 * Maximum width of horizontal labels, including margins.
+	 */
+	private final double maxHorizontalLabelsWidth;
+
+	/**
+	 * Maximum width (on screen - height) of vertical labels, including margins.
+	 */
+	private final double maxVerticalLabelsWidth;
+
+	/**
+	 * Widths of abbreviated titles in zoom font, {@code -1} if title is not measured yet.
+	 */
+	private final int[] widths;
+
+	/**
+	 * Titles abbreviated to fit maximum width of horizontal labels, {@code null} if title is not abbreviated yet.
+	 */
+	private final String[] horizontalLabels;
+
+	/**
+	 * Titles abbreviated to fit maximum width of vertical labels, {@code null} if title is not abbreviated yet.
+	 */
+	private final String[] verticalLabels;
+
+	/**
+	 * Memoized models by zoom origin, see {@link #key(int, int)}.
+	 */
+	private final Map<Long, Zoom> models = new LinkedHashMap<Long, Zoom>(16, 0.75f, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Zoom> eldest)
+		{
+			return size() > MAX_MODELS;
+		}
+	};
+
+	/**
+	 * Creates empty cache for given layout of grid.
+	 *
+	 * @param titleMetrics measurements of rows titles
+	 * @param labelsFont font of grid labels, its size is not taken into account
+	 * @param fontMetrics provides metrics for given font
+	 * @param length width and height of zoom grid in cells
+	 * @param gridCellSize cell size of main grid
+	 * @param gridWidth width of main grid without borders
+	 * @param gridHeight height of main grid without borders
+	 */
+	ZoomModels(TitleMetrics titleMetrics, Font labelsFont, Function<Font, FontMetrics> fontMetrics, int length,
+			double gridCellSize, double gridWidth, double gridHeight)
+	{
+		this.titleMetrics = titleMetrics;
+		this.length = length;
+		this.gridCellSize = gridCellSize;
+		this.gridWidth = gridWidth;
+		this.gridHeight = gridHeight;
+
+		// entry point for sizes calculation is the proportion of zoom grid with main grid's height
+		cellsSize = gridHeight * CELLS_PROPORTION;
+		cellSize = cellsSize / length;
+		labelsMargin = cellSize * (1 - CorrelationMatrixGrid.LABEL_HEIGHT_PROPORTION) / 2;
+		font = labelsFont.deriveFont((float) cellSize * CorrelationMatrixGrid.LABEL_HEIGHT_PROPORTION);
+		this.fontMetrics = fontMetrics.apply(font);
+
+		// ensuring labels to fit component's size
+		maxHorizontalLabelsWidth = gridWidth - cellsSize - 2 * labelsMargin;
+		maxVerticalLabelsWidth = gridHeight - cellsSize;
+
+		int titles = titleMetrics.length();
+		widths = new int[titles];
+		Arrays.fill(widths, -1);
+		horizontalLabels = new String[titles];
+		verticalLabels = new String[titles];
+	}
+
+	/**
+	 * Checks whether this cache contains models for given layout of grid.
+	 *
+	 * @param titleMetrics measurements of rows titles
+	 * @param length width and height of zoom grid in cells
+	 * @param gridCellSize cell size of main grid
+	 * @param gridWidth width of main grid without borders
+	 * @param gridHeight height of main grid without borders
+	 * @return {@code true} if cached models are valid
+	 */
+	boolean matches(TitleMetrics titleMetrics, int length, double gridCellSize, double gridWidth, double gridHeight)
+	{
+		return this.titleMetrics == titleMetrics && this.length == length && this.gridCellSize == gridCellSize
+				&& this.gridWidth == gridWidth && this.gridHeight == gridHeight;
+	}
+
+	/**
+	 * Returns zoom model with given origin, creating it if needed.
+	 *
+	 * @param i index of the first zoomed column
+	 * @param j index of the first zoomed row
+	 * @return zoom model
+	 */
+	Zoom get(int i, int j)
+	{
+		return models.computeIfAbsent(key(i, j), key -> create(i, j));
+	}
+
+	/**
+	 * Creates zoom model with given origin.
+	 *
+	 * @param i index of the first zoomed column
+	 * @param j index of the first zoomed row
+	 * @return zoom model
+	 */
+	private Zoom create(int i, int j)
+	{
+		Zoom zoom = new Zoom();
+		zoom.length = length;
+		zoom.zoomSelectionSize = length * gridCellSize;
+		zoom.i = i;
+		zoom.j = j;
+		zoom.cellsSize = cellsSize;
+		zoom.cellSize = cellSize;
+		zoom.labelsMargin = labelsMargin;
+		zoom.font = font;
+
+		// gathering, measuring and abbreviating (if needed) horizontal labels
+		zoom.horizontalLabelsWidth = getLabelsWidth(j) + labelsMargin * 2;
+		if (zoom.horizontalLabelsWidth > maxHorizontalLabelsWidth)
+		{
+			zoom.horizontalLabels = getAbbreviatedLabels(j, horizontalLabels, maxHorizontalLabelsWidth);
+			zoom.horizontalLabelsWidth = maxHorizontalLabelsWidth;
+		}
+		else
+		{
+			zoom.horizontalLabels = getLabels(j);
+		}
+
+		// gathering, measuring and abbreviating (if needed) vertical labels
+		zoom.verticalLabelsWidth = getLabelsWidth(i) + labelsMargin * 2;
+		if (zoom.verticalLabelsWidth > maxVerticalLabelsWidth)
+		{
+			zoom.verticalLabels = getAbbreviatedLabels(i, verticalLabels, maxVerticalLabelsWidth);
+			zoom.verticalLabelsWidth = maxVerticalLabelsWidth;
+		}
+		else
+		{
+			zoom.verticalLabels = getLabels(i);
+		}
+
+		zoom.width = zoom.horizontalLabelsWidth + cellsSize;
+		zoom.height = zoom.verticalLabelsWidth + cellsSize;
+		zoom.x = gridWidth - zoom.width;
+		zoom.y = 0;
+		return zoom;
+	}
+
+	/**
+	 * Returns the graphical width of the longest of titles of given zoomed rows, measuring them if needed.
+	 *
+	 * @param from index of the first zoomed row
+	 * @return width in pixels
+	 */
+	private double getLabelsWidth(int from)
+	{
+		int result = 0;
+		for (int index = from; index < from + length; index++)
+		{
+			if (widths[index] < 0)
+			{
+				widths[index] = fontMetrics.stringWidth(titleMetrics.getAbbreviatedTitle(index));
+			}
+			result = Math.max(result, widths[index]);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns titles of given zoomed rows, abbreviated to maximum label length.
+	 *
+	 * @param from index of the first zoomed row
+	 * @return new list of titles
+	 */
+	private List<String> getLabels(int from)
+	{
+		List<String> result = new ArrayList<>(length);
+		for (int index = from; index < from + length; index++)
+		{
+			result.add(titleMetrics.getAbbreviatedTitle(index));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns titles of given zoomed rows, which are abbreviated to fit given width. Required number of letters is
+	 * removed from the end of each title, and 3 more letters at the end are replaced with "...".
+	 *
+	 * @param from index of the first zoomed row
+	 * @param cache titles abbreviated to the same width
+	 * @param maxWidth maximum allowed width of labels
+	 * @return new list of abbreviated titles
+	 */
+	private List<String> getAbbreviatedLabels(int from, String[] cache, double maxWidth)
+	{
+		FontRenderContext fontRenderContext = fontMetrics.getFontRenderContext();
+		List<String> result = new ArrayList<>(length);
+		for (int index = from; index < from + length; index++)
+		{
+			if (cache[index] == null)
+			{
+				String title = titleMetrics.getAbbreviatedTitle(index);
+				TextLayout layout = new TextLayout(title, font, fontRenderContext);
+				TextHitInfo hit = layout.hitTestChar((float) maxWidth, 0);
+				cache[index] = Utilities.abbreviate(title, (short) hit.getCharIndex());
+			}
+			result.add(cache[index]);
+		}
+		return result;
+	}
+
+	/**
+	 * Combines indexes of zoom origin into key of memoized model.
+	 *
+	 * @param i index of the first zoomed column
+	 * @param j index of the first zoomed row
+	 * @return key of model
+	 */
+	private static long key(int i, int j)
+	{
+		return (long) i << 32 | j;
+	}
+}
@@ -0,0 +1,412 @@
+package com.earnix.eo.gui.correlation;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache of rendered zoom cells for single zoom cell size and device scale. Cells of the whole matrix are laid out
+ * on a plane, where cell {@code (i, j)} is located at {@code (i * cellSize, j * cellSize)}. The plane is split into
+ * square tiles of {@link #TILE_SIZE} device pixels, which are rendered on demand and then are drawn into zoom area
+ * instead of painting each cell, so zoom follows the pointer without repainting its cells.
+ * <br>
+ * The least recently used tiles are dropped when their total size exceeds {@link #MEMORY_BUDGET}. Missing tiles of
+ * the zoomed area are rendered in the painting thread, so painting doesn't wait for other tasks of the rendering pool.
+ * Tiles adjacent to the zoomed area are rendered in background, so they are ready when zoom is dragged, and their
+ * renderings, which are not started yet, are cancelled when zoom moves away. May be used from any thread.
+ * <br>
+ * Tiles depend on cell colors and ellipse stroke, so cache should be dropped if they are changed.
+ */
+class ZoomTiles
+{
+	/**
+	 * Width and height of tile in device pixels.
+	 */
+	static final int TILE_SIZE = 256;
+
+	/**
+	 * Maximum total size of cached tiles in bytes. Package access for testing purpose.
+	 */
+	static final long MEMORY_BUDGET = 64L << 20;
+
+	/**
+	 * Source of displayed values.
+	 */
+	private final CorrelationSource correlations;
+
+	/**
+	 * Zoom cell width and height.
+	 */
+	private final double cellSize;
+
+	/**
+	 * Amount of device pixels in one unit of cell coordinates.
+	 */
+	private final double scale;
+
+	/**
+	 * Whether cells are painted as filled rectangles.
+	 */
+	private final boolean compact;
+
+	/**
+	 * Color of empty space between cells.
+	 */
+	private final Color background;
+
+	/**
+	 * Paints single cell into graphical context, is used to render tiles.
+	 */
+	private final BiConsumer<Graphics2D, Cell> painter;
+
+	/**
+	 * Rendered tiles by their key, see {@link #key(int, int)}, in access order. Guarded by this cache.
+	 */
+	private final LinkedHashMap<Long, BufferedImage> tiles = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Background renderings of tiles by their keys. Guarded by this cache.
+	 */
+	private final Map<Long, ForkJoinTask<?>> pendingTiles = new HashMap<>();
+
+	/**
+	 * Total size of cached tiles in bytes. Guarded by this cache.
+	 */
+	private long size;
+
+	/**
+	 * Is incremented when cells are changed, so tiles rendered before are not cached. Guarded by this cache.
+	 */
+	private int version;
+
+	/**
+	 * Creates empty cache of tiles.
+	 *
+	 * @param correlations source of displayed values
+	 * @param cellSize zoom cell width and height
+	 * @param scale amount of device pixels in one unit of cell coordinates
+	 * @param compact whether cells are painted as filled rectangles
+	 * @param background color of empty space between cells
+	 * @param painter paints single cell into graphical context, skipping {@code NaN} cells
+	 */
+	ZoomTiles(CorrelationSource correlations, double cellSize, double scale, boolean compact, Color background,
+			BiConsumer<Graphics2D, Cell> painter)
+	{
+		this.correlations = correlations;
+		this.cellSize = cellSize;
+		this.scale = scale;
+		this.compact = compact;
+		this.background = background;
+		this.painter = painter;
+	}
+
+	/**
+	 * Checks whether this cache contains tiles for given values and sizes.
+	 *
+	 * @param correlations source of displayed values
+	 * @param cellSize zoom cell width and height
+	 * @param scale amount of device pixels in one unit of cell coordinates
+	 * @param compact whether cells are painted as filled rectangles
+	 * @return {@code true} if tiles match given values and sizes
+	 */
+	boolean matches(CorrelationSource correlations, double cellSize, double scale, boolean compact)
+	{
+		return this.correlations == correlations && this.cellSize == cellSize && this.scale == scale
+				&& this.compact == compact;
+	}
+
+	/**
+	 * Draws zoomed cells into given graphical context, rendering missing tiles in current thread, and starts
+	 * background rendering of tiles around them in given pool. Tiles are aligned to device pixels.
+	 *
+	 * @param g2d graphical context with device scale this cache was created for
+	 * @param i index of the first zoomed column
+	 * @param j index of the first zoomed row
+	 * @param length width and height of zoom grid in cells
+	 * @param x horizontal location of zoom cells
+	 * @param y vertical location of zoom cells
+	 * @param pool pool to render adjacent tiles in, {@code null} to skip prefetching
+	 */
+	void paint(Graphics2D g2d, int i, int j, int length, double x, double y, /* Nullable */ ForkJoinPool pool)
+	{
+		// zoomed area on the plane in device pixels
+		double planeX = i * cellSize * scale;
+		double planeY = j * cellSize * scale;
+		double side = length * cellSize * scale;
+		int fromTileX = (int) Math.floor(planeX / TILE_SIZE);
+		int fromTileY = (int) Math.floor(planeY / TILE_SIZE);
+		int toTileX = (int) Math.ceil((planeX + side) / TILE_SIZE);
+		int toTileY = (int) Math.ceil((planeY + side) / TILE_SIZE);
+
+		List<Long> keys = new ArrayList<>();
+		for (int tileY = fromTileY; tileY < toTileY; tileY++)
+		{
+			for (int tileX = fromTileX; tileX < toTileX; tileX++)
+			{
+				keys.add(key(tileX, tileY));
+			}
+		}
+		BufferedImage[] images = getTiles(keys);
+
+		Graphics2D tilesGraphics = (Graphics2D) g2d.create();
+		try
+		{
+			tilesGraphics.clip(new Rectangle2D.Double(x, y, length * cellSize, length * cellSize));
+			// all tiles are shifted by the same whole amount of device pixels, so they are adjacent
+			double offsetX = Math.round(x * scale - planeX);
+			double offsetY = Math.round(y * scale - planeY);
+			for (int k = 0; k < keys.size(); k++)
+			{
+				long key = keys.get(k);
+				AffineTransform transform = AffineTransform.getTranslateInstance(
+						(offsetX + tileX(key) * TILE_SIZE) / scale, (offsetY + tileY(key) * TILE_SIZE) / scale);
+				transform.scale(1 / scale, 1 / scale);
+				tilesGraphics.drawImage(images[k], transform, null);
+			}
+		}
+		finally
+		{
+			tilesGraphics.dispose();
+		}
+
+		if (pool != null)
+		{
+			prefetch(fromTileX - 1, fromTileY - 1, toTileX + 1, toTileY + 1, pool);
+		}
+	}
+
+	/**
+	 * Drops tiles which display any of given cells, so they will be rendered again.
+	 *
+	 * @param fromI index of the first changed column
+	 * @param fromJ index of the first changed row
+	 * @param toI index of the column after the last changed one
+	 * @param toJ index of the row after the last changed one
+	 */
+	synchronized void invalidate(int fromI, int fromJ, int toI, int toJ)
+	{
+		version++;
+		// tiles include cells adjacent to them, see render(int, int)
+		double tileCells = TILE_SIZE / (cellSize * scale);
+		Iterator<Map.Entry<Long, BufferedImage>> iterator = tiles.entrySet().iterator();
+		while (iterator.hasNext())
+		{
+			Map.Entry<Long, BufferedImage> entry = iterator.next();
+			long key = entry.getKey();
+			double tileI = tileX(key) * tileCells;
+			double tileJ = tileY(key) * tileCells;
+			if (tileI - 1 < toI && fromI < tileI + tileCells + 1 && tileJ - 1 < toJ && fromJ < tileJ + tileCells + 1)
+			{
+				size -= imageSize(entry.getValue());
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns tiles with given keys, rendering missing ones in current thread.
+	 *
+	 * @param keys keys of tiles
+	 * @return tile images in order of keys
+	 */
+	private BufferedImage[] getTiles(List<Long> keys)
+	{
+		BufferedImage[] images = new BufferedImage[keys.size()];
+		for (int k = 0; k < keys.size(); k++)
+		{
+			long key = keys.get(k);
+			int renderVersion;
+			synchronized (this)
+			{
+				images[k] = tiles.get(key);
+				renderVersion = version;
+			}
+			if (images[k] == null)
+			{
+				images[k] = render(tileX(key), tileY(key));
+				put(key, images[k], renderVersion);
+			}
+		}
+		return images;
+	}
+
+	/**
+	 * Starts background rendering of not cached tiles in given range, and cancels background renderings of tiles
+	 * outside of it, which are not started yet.
+	 *
+	 * @param fromTileX index of the first tile column
+	 * @param fromTileY index of the first tile row
+	 * @param toTileX index of the tile column after the last one
+	 * @param toTileY index of the tile row after the last one
+	 * @param pool pool to render tiles in
+	 */
+	private void prefetch(int fromTileX, int fromTileY, int toTileX, int toTileY, ForkJoinPool pool)
+	{
+		synchronized (this)
+		{
+			Iterator<Map.Entry<Long, ForkJoinTask<?>>> iterator = pendingTiles.entrySet().iterator();
+			while (iterator.hasNext())
+			{
+				Map.Entry<Long, ForkJoinTask<?>> entry = iterator.next();
+				int tileX = tileX(entry.getKey());
+				int tileY = tileY(entry.getKey());
+				if ((tileX < fromTileX || tileX >= toTileX || tileY < fromTileY || tileY >= toTileY)
+						&& entry.getValue().cancel(false))
+				{
+					iterator.remove();
+				}
+			}
+		}
+
+		int maxTile = (int) Math.ceil(correlations.length() * cellSize * scale / TILE_SIZE);
+		for (int tileY = Math.max(fromTileY, 0); tileY < Math.min(toTileY, maxTile); tileY++)
+		{
+			for (int tileX = Math.max(fromTileX, 0); tileX < Math.min(toTileX, maxTile); tileX++)
+			{
+				long key = key(tileX, tileY);
+				int renderedX = tileX;
+				int renderedY = tileY;
+				synchronized (this)
+				{
+					if (tiles.containsKey(key) || pendingTiles.containsKey(key))
+					{
+						continue;
+					}
+					int renderVersion = version;
+					pendingTiles.put(key, pool.submit(() -> {
+						BufferedImage image = render(renderedX, renderedY);
+						synchronized (this)
+						{
+							pendingTiles.remove(key);
+						}
+						put(key, image, renderVersion);
+					}));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Caches given tile, unless cells were changed since it was started to render, dropping the least recently used
+	 * tiles if memory budget is exceeded.
+	 *
+	 * @param key key of tile
+	 * @param image rendered tile
+	 * @param renderVersion {@link #version} when tile was started to render
+	 */
+	private synchronized void put(long key, BufferedImage image, int renderVersion)
+	{
+		if (renderVersion != version)
+		{
+			return;
+		}
+		BufferedImage replaced = tiles.put(key, image);
+		size += imageSize(image) - (replaced != null ? imageSize(replaced) : 0);
+		Iterator<BufferedImage> iterator = tiles.values().iterator();
+		while (size > MEMORY_BUDGET && tiles.size() > 1)
+		{
+			size -= imageSize(iterator.next());
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Renders tile with given indexes. Cells adjacent to the tile are painted as well, since they may cover its
+	 * edges.
+	 *
+	 * @param tileX index of tile column
+	 * @param tileY index of tile row
+	 * @return rendered tile with device resolution
+	 */
+	private BufferedImage render(int tileX, int tileY)
+	{
+		BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2d = image.createGraphics();
+		try
+		{
+			g2d.setBackground(background);
+			g2d.clearRect(0, 0, TILE_SIZE, TILE_SIZE);
+			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g2d.translate(-tileX * TILE_SIZE, -tileY * TILE_SIZE);
+			g2d.scale(scale, scale);
+
+			double deviceCellSize = cellSize * scale;
+			int fromI = Math.max((int) Math.floor(tileX * TILE_SIZE / deviceCellSize) - 1, 0);
+			int fromJ = Math.max((int) Math.floor(tileY * TILE_SIZE / deviceCellSize) - 1, 0);
+			int toI = Math.min((int) Math.ceil((tileX + 1) * TILE_SIZE / deviceCellSize) + 1, correlations.length());
+			int toJ = Math.min((int) Math.ceil((tileY + 1) * TILE_SIZE / deviceCellSize) + 1, correlations.length());
+			for (int j = fromJ; j < toJ; j++)
+			{
+				// painting cells only below the diagonal
+				for (int i = fromI; i < Math.min(toI, j); i++)
+				{
+					Cell cell = new Cell();
+					cell.x = i * cellSize;
+					cell.y = j * cellSize;
+					cell.size = cellSize;
+					cell.compact = compact;
+					cell.value = correlations.getValue(i, j);
+					painter.accept(g2d, cell);
+				}
+			}
+		}
+		finally
+		{
+			g2d.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Returns size of given tile in bytes.
+	 *
+	 * @param image tile image
+	 * @return size in bytes
+	 */
+	private static long imageSize(BufferedImage image)
+	{
+		return (long) image.getWidth() * image.getHeight() * Integer.BYTES;
+	}
+
+	/**
+	 * Combines indexes of tile into its key.
+	 *
+	 * @param tileX index of tile column
+	 * @param tileY index of tile row
+	 * @return key of tile
+	 */
+	private static long key(int tileX, int tileY)
+	{
+		return (long) tileX << 32 | tileY & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * @param key key of tile
+	 * @return index of tile column
+	 */
+	private static int tileX(long key)
+	{
+		return (int) (key >> 32);
+	}
+
+	/**
+	 * @param key key of tile
+	 * @return index of tile row
+	 */
+	private static int tileY(long key)
+	{
+		return (int) key;
+	}
+}
@@ -2,10 +2,24 @@ package com.earnix.eo.gui.correlation;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import static java.lang.Double.NaN;
 import static javax.swing.SwingUtilities.invokeAndWait;
@@ -94,6 +108,79 @@ class CorrelationMatrixTest
 		});
 	}
 
+	@Test
+	void resizingPreferredSize() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			CorrelationMatrix resizedMatrix = new CorrelationMatrix(matrix.getDataTypes(), matrix.getTitles(),
+					correlations, correlationsSqr);
+			CorrelationMatrixGrid resizedGrid = resizedMatrix.grid;
+			resizedMatrix.setSize(1200, 800);
+			resizedGrid.setSize(resizedGrid.getPreferredSize());
+			// rendered image is required to display scaled layout
+			paint(resizedGrid);
+
+			resizedMatrix.setSize(900, 600);
+			Dimension resizingSize = resizedGrid.getPreferredSize();
+			Assertions.assertTrue(resizedGrid.isResizing(), "Layout is scaled while grid is resized");
+			resizedGrid.finishResizing();
+			Dimension exactSize = resizedGrid.getPreferredSize();
+			Assertions.assertFalse(resizedGrid.isResizing(), "Exact layout is calculated after resizing");
+
+			// scaled layout should be close to the exact one
+			Assertions.assertEquals(exactSize.width, resizingSize.width, exactSize.width * 0.1);
+			Assertions.assertEquals(exactSize.height, resizingSize.height, exactSize.height * 0.1);
+
+			resizedMatrix.setResizeIdleTime(0);
+			resizedMatrix.setSize(1000, 700);
+			resizedGrid.getPreferredSize();
+			Assertions.assertFalse(resizedGrid.isResizing(), "Exact layout is calculated if idle time is 0");
+			Assertions.assertThrows(IllegalArgumentException.class, () -> resizedMatrix.setResizeIdleTime(-1));
+		});
+	}
+
+	@Test
+	void titleMetrics() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			Font font = matrix.getLabelsFont();
+			List<String> titles = new ArrayList<>(Arrays.asList("Year", "Duration of contract"));
+			TitleMetrics metrics = new TitleMetrics(titles, font, grid::getFontMetrics, (short) 64);
+			Assertions.assertEquals(grid.getFontMetrics(font).stringWidth("Duration of contract"),
+					metrics.getMaxWidth(font));
+			Assertions.assertTrue(metrics.matches(new ArrayList<>(titles), font), "Titles are compared by content");
+
+			titles.set(1, "Amount");
+			Assertions.assertFalse(metrics.matches(titles, font), "Change of titles list in place is detected");
+			Assertions.assertFalse(metrics.matches(titles, font.deriveFont(Font.BOLD)));
+		});
+	}
+
+	@Test
+	void removeNotify() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			CorrelationMatrix removedMatrix = new CorrelationMatrix(matrix.getDataTypes(), matrix.getTitles(),
+					correlations, correlationsSqr);
+			CorrelationMatrixGrid removedGrid = removedMatrix.grid;
+			removedMatrix.setRenderingParallelism(2);
+			removedMatrix.setSize(1200, 800);
+			removedGrid.setSize(removedGrid.getPreferredSize());
+			paint(removedGrid);
+			removedMatrix.setSize(900, 600);
+			removedGrid.getPreferredSize();
+			Assertions.assertTrue(removedGrid.isResizing());
+			ForkJoinPool pool = removedMatrix.getRenderingPool();
+
+			removedGrid.removeNotify();
+			Assertions.assertFalse(removedGrid.isResizing(), "Resizing is stopped for removed grid");
+			Assertions.assertTrue(pool.isShutdown(), "Rendering pool is released for removed grid");
+			ForkJoinPool newPool = removedMatrix.getRenderingPool();
+			Assertions.assertNotSame(pool, newPool, "Rendering pool is created again on demand");
+			newPool.shutdown();
+		});
+	}
+
 	@Test
 	void cell() throws InvocationTargetException, InterruptedException
 	{
@@ -153,20 +240,42 @@ class CorrelationMatrixTest
 
 			Assertions.assertEquals(0, zoom.y);
 			Assertions.assertEquals(grid.cellsWidth - zoom.width, zoom.x, "Zoom must be located at top right corner");
+			Assertions.assertSame(zoom, grid.createZoom(new CellIndex(1, 1)), "Zoom of the same area must be reused");
+
+			Font labelsFont = matrix.getLabelsFont();
+			matrix.setLabelsFont(labelsFont.deriveFont(Font.BOLD));
+			Zoom boldZoom = grid.createZoom(new CellIndex(1, 1));
+			matrix.setLabelsFont(labelsFont);
+			Assertions.assertNotSame(zoom, boldZoom, "Zoom must be created again after font change");
+			Assertions.assertTrue(boldZoom.font.isBold());
+
+			matrix.setZoomLength(4);
+			Zoom smallerZoom = grid.createZoom(new CellIndex(1, 1));
+			matrix.setZoomLength(5);
+			Assertions.assertEquals(4, smallerZoom.length, "Zoom must be created again after layout change");
+			Assertions.assertNotSame(zoom, grid.createZoom(new CellIndex(1, 1)));
 
 		});
 
 	}
 
 	@Test
-	void interpolateColor() throws InvocationTargetException, InterruptedException
+	void interpolateRgb() throws InvocationTargetException, InterruptedException
 	{
 		invokeAndWait(() -> {
 			double proportion = 0.7;
-			Color result = Utilities.interpolateColor(Color.BLACK, Color.WHITE, proportion);
+			Color result = new Color(Utilities.interpolateRgb(Color.BLACK.getRGB(), Color.WHITE.getRGB(), proportion));
 			Assertions.assertEquals(255 - 255 * proportion, result.getRed(), 1, "Red must be interpolated");
 			Assertions.assertEquals(255 - 255 * proportion, result.getGreen(), 1, "Green must be interpolated");
 			Assertions.assertEquals(255 - 255 * proportion, result.getBlue(), 1, "Blue must be interpolated");
+			Assertions.assertEquals(255, result.getAlpha(), "Result must be opaque");
+
+			CellColors colors = new CellColors(Color.BLACK, Color.RED, Color.WHITE);
+			Assertions.assertEquals(result, colors.getColor(proportion), "Cell color must be interpolated");
+			Assertions.assertEquals(result.getRGB(), colors.getRgb(proportion));
+			Assertions.assertEquals(Color.RED, colors.getColor(-1), "Negative color must be used");
+			Assertions.assertEquals(Color.WHITE, colors.getColor(0), "Zero must have background color");
+			Assertions.assertEquals(0, colors.getRgb(NaN), "NaN must be transparent");
 		});
 
 	}
@@ -218,6 +327,711 @@ class CorrelationMatrixTest
 		Assertions.assertEquals(-correlationsSqr[0][2], matrix.getValue(0, 2));
 	}
 
+	@Test
+	void packedCorrelations()
+	{
+		PackedCorrelations packed = PackedCorrelations.pack(correlations, correlationsSqr, true);
+		Assertions.assertEquals(matrix.length(), packed.length());
+		for (int i = 0; i < packed.length(); i++)
+		{
+			for (int j = i; j < packed.length(); j++)
+			{
+				Assertions.assertEquals(matrix.getValue(i, j), packed.getValue(i, j), 1e-6);
+				Assertions.assertEquals(packed.getValue(i, j), packed.getValue(j, i), "Matrix is symmetric");
+			}
+		}
+		Assertions.assertEquals(correlations[0][2], packed.getCorrelation(2, 0), 1e-6);
+		Assertions.assertEquals(correlationsSqr[0][2], packed.getCorrelationSqr(0, 2), 1e-6);
+
+		// only displayed triangle is read
+		PackedCorrelations upper = PackedCorrelations.pack(new double[][] { { 1, -0.5 }, { NaN, 1 } },
+				new double[][] { { 1, 0.25 }, { NaN, 1 } }, false);
+		Assertions.assertEquals(-0.5, upper.getCorrelation(1, 0), 1e-12);
+		Assertions.assertEquals(0.25, upper.getCorrelationSqr(0, 1), 1e-12);
+	}
+
+	@Test
+	void mappedCorrelations() throws IOException
+	{
+		PackedCorrelations packed = PackedCorrelations.pack(correlations, correlationsSqr, false);
+		Path file = Files.createTempFile("correlations", ".bin");
+		try
+		{
+			MappedCorrelations.write(file, packed, false);
+			MappedCorrelations mapped = MappedCorrelations.open(file);
+			Assertions.assertEquals(packed.length(), mapped.length());
+			for (int i = 0; i < packed.length(); i++)
+			{
+				for (int j = 0; j < packed.length(); j++)
+				{
+					Assertions.assertEquals(packed.getValue(i, j), mapped.getValue(i, j));
+				}
+			}
+		}
+		finally
+		{
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	void updateCell() throws InvocationTargetException, InterruptedException
+	{
+		invokeAndWait(() -> {
+			double[][] updatedCorrelations = Arrays.stream(correlations).map(double[]::clone).toArray(double[][]::new);
+			double[][] updatedCorrelationsSqr = Arrays.stream(correlationsSqr).map(double[]::clone)
+					.toArray(double[][]::new);
+			CorrelationMatrix updatedMatrix = new CorrelationMatrix(matrix.getDataTypes(), matrix.getTitles(),
+					updatedCorrelations, updatedCorrelationsSqr);
+			ValuesPyramid pyramid = new ValuesPyramid(updatedMatrix.correlations, null);
+
+			updatedMatrix.updateCell(4, 2, -0.5, 0.25);
+			pyramid.update(updatedMatrix.correlations, 2, 4, 3, 5);
+			Assertions.assertEquals(-0.25, updatedMatrix.getValue(2, 4));
+			Assertions.assertEquals(-0.25, updatedMatrix.getValue(4, 2), "Symmetric cell is updated too");
+			Assertions.assertEquals(-0.5, updatedCorrelations[2][4]);
+
+			ValuesPyramid rebuilt = new ValuesPyramid(updatedMatrix.correlations, null);
+			for (int level = 1; level <= 3; level++)
+			{
+				Assertions.assertEquals(rebuilt.getValue(level, 2, 4, CellsAggregation.MAXIMUM_ABSOLUTE),
+						pyramid.getValue(level, 2, 4, CellsAggregation.MAXIMUM_ABSOLUTE));
+				Assertions.assertEquals(rebuilt.getValue(level, 2, 4, CellsAggregation.MEAN),
+						pyramid.getValue(level, 2, 4, CellsAggregation.MEAN), 1e-6);
+			}
+
+			// diagonal cells are displayed only in zoom and tooltips
+			updatedMatrix.setSize(600, 400);
+			CorrelationMatrixGrid updatedGrid = updatedMatrix.grid;
+			updatedGrid.setSize(updatedGrid.getPreferredSize());
+			Assertions.assertTrue(updatedGrid.getToolTipText(mouseEvent(updatedGrid, 3, 3)).endsWith("R = 1.0000"));
+			updatedMatrix.updateCell(3, 3, 0.5, 0.25);
+			Assertions.assertTrue(updatedGrid.getToolTipText(mouseEvent(updatedGrid, 3, 3)).endsWith("R = 0.5000"),
+					"Tooltip of diagonal cell is created again after update");
+		});
+	}
+
+	@Test
+	void setData() throws InvocationTargetException, InterruptedException
+	{
+		invokeAndWait(() -> {
+			CorrelationMatrix swappedMatrix = new CorrelationMatrix(matrix.getDataTypes(), matrix.getTitles(),
+					correlations, correlationsSqr);
+			swappedMatrix.grid.highlightIndex = new CellIndex(1, 1);
+			PackedCorrelations packed = PackedCorrelations.pack(correlations, correlationsSqr, true);
+			packed.setCorrelation(2, 0, 0.5, 0.25);
+
+			swappedMatrix.setData(matrix.getDataTypes(), new ArrayList<>(matrix.getTitles()), packed);
+			Assertions.assertEquals(0.25, swappedMatrix.getValue(0, 2));
+			Assertions.assertSame(matrix.getTitles(), swappedMatrix.getTitles(), "Equal titles are kept");
+			Assertions.assertNotNull(swappedMatrix.grid.highlightIndex, "Highlight is kept for the same length");
+			Assertions.assertNull(swappedMatrix.getCorrelations());
+		});
+	}
+
+	@Test
+	void pearsonCalculator()
+	{
+		double[][] columns = new double[][] {
+				{ 1, 2, 3, 4, 5 },
+				{ 2, 4, 6, 8, 10 },
+				{ 5, 3, 4, 2, 1 },
+				{ 7, 7, 7, 7, 7 } };
+		PackedCorrelations result = PearsonCalculator.calculate(columns, false);
+		Assertions.assertEquals(1, result.getCorrelation(0, 0), 1e-12);
+		Assertions.assertEquals(1, result.getCorrelation(1, 0), 1e-12);
+		Assertions.assertEquals(-0.9, result.getCorrelation(2, 0), 1e-12);
+		Assertions.assertEquals(0.81, result.getCorrelationSqr(0, 2), 1e-12);
+		Assertions.assertTrue(Double.isNaN(result.getCorrelation(3, 1)), "Constant column has no correlation");
+	}
+
+	@Test
+	void cramersVCalculator()
+	{
+		NominalColumn[] columns = new NominalColumn[] {
+				NominalColumn.encode(Arrays.asList("a", "a", "b", "b", null)),
+				NominalColumn.encode(Arrays.asList("x", "x", "y", "y", "y")),
+				NominalColumn.encode(Arrays.asList("x", "y", "x", "y", "x")),
+				NominalColumn.encode(Arrays.asList("c", "c", "c", "c", "c")) };
+		Assertions.assertEquals(2, columns[0].getLevels());
+		Assertions.assertEquals(NominalColumn.MISSING, columns[0].codes[4]);
+
+		PackedCorrelations result = CramersVCalculator.calculate(columns, false);
+		Assertions.assertEquals(1, result.getCorrelationSqr(0, 1), 1e-12, "Missing values are skipped");
+		Assertions.assertEquals(0, result.getCorrelationSqr(0, 2), 1e-12);
+		Assertions.assertTrue(Double.isNaN(result.getCorrelationSqr(3, 1)), "Single level has no association");
+	}
+
+	@Test
+	void correlationAccumulator()
+	{
+		double[][] columns = new double[][] { { 1, 2, 3, 4, 5 }, { 2, 4, 6, 8, 10 }, { 5, 3, 4, 2, 1 } };
+		CorrelationAccumulator accumulator = new CorrelationAccumulator(3);
+		accumulator.add(new double[][] { { 1, 2, 5 }, { 2, 4, 3 } });
+		accumulator.add(new double[0][]);
+		accumulator.add(new double[][] { { 3, 6, 4 }, { 4, 8, 2 }, { 5, 10, 1 } });
+		Assertions.assertEquals(5, accumulator.getCount());
+
+		PackedCorrelations expected = PearsonCalculator.calculate(columns, false);
+		PackedCorrelations snapshot = accumulator.snapshot(false);
+		for (int i = 0; i < 3; i++)
+		{
+			for (int j = 0; j <= i; j++)
+			{
+				Assertions.assertEquals(expected.getCorrelation(i, j), snapshot.getCorrelation(i, j), 1e-12);
+			}
+		}
+		Assertions.assertThrows(IllegalArgumentException.class, () -> accumulator.add(new double[][] { { 1, 2 } }));
+	}
+
+	@Test
+	void correlationAccumulatorPublishing() throws InterruptedException, InvocationTargetException
+	{
+		CorrelationAccumulator accumulator = new CorrelationAccumulator(3);
+		accumulator.add(new double[][] { { 1, 2, 5 }, { 2, 4, 3 }, { 3, 6, 4 } });
+		CorrelationMatrix[] published = new CorrelationMatrix[1];
+		CorrelationSource[] displayed = new CorrelationSource[2];
+		Timer[] timer = new Timer[1];
+		// snapshots are completed by the test, and timer is fired by the test instead of its delay
+		List<CompletableFuture<PackedCorrelations>> snapshots = new ArrayList<>();
+		List<Throwable> reported = new ArrayList<>();
+		Thread.UncaughtExceptionHandler[] handler = new Thread.UncaughtExceptionHandler[1];
+		invokeAndWait(() -> {
+			published[0] = new CorrelationMatrix(Collections.nCopies(3, RowType.NUMERIC), Arrays.asList("A", "B", "C"),
+					new PackedCorrelations(3, true));
+			displayed[0] = published[0].correlations;
+			timer[0] = accumulator.startPublishing(published[0], (int) TimeUnit.HOURS.toMillis(1), () -> {
+				CompletableFuture<PackedCorrelations> snapshot = new CompletableFuture<>();
+				snapshots.add(snapshot);
+				return snapshot;
+			});
+			handler[0] = Thread.currentThread().getUncaughtExceptionHandler();
+			Thread.currentThread().setUncaughtExceptionHandler((thread, error) -> reported.add(error));
+		});
+		Runnable fire = () -> timer[0].getActionListeners()[0].actionPerformed(null);
+		try
+		{
+			invokeAndWait(fire);
+			invokeAndWait(fire);
+			Assertions.assertEquals(1, snapshots.size(), "The next calculation waits for the previous one");
+			snapshots.get(0).complete(accumulator.snapshot(true));
+			invokeAndWait(() -> displayed[1] = published[0].correlations);
+			Assertions.assertNotSame(displayed[0], displayed[1], "Accumulated correlations must be published");
+			Assertions.assertEquals(1, displayed[1].getCorrelation(1, 0), 1e-6);
+			invokeAndWait(fire);
+			Assertions.assertEquals(1, snapshots.size(), "The same rows are not calculated again");
+
+			accumulator.add(new double[][] { { 4, 0, 2 } });
+			invokeAndWait(fire);
+			IllegalStateException error = new IllegalStateException();
+			snapshots.get(1).completeExceptionally(error);
+			invokeAndWait(() -> Assertions.assertSame(displayed[1], published[0].correlations));
+			Assertions.assertEquals(Collections.singletonList(error), reported, "Error must be reported");
+			invokeAndWait(fire);
+			Assertions.assertEquals(3, snapshots.size(), "Rows are calculated again after error");
+			PackedCorrelations recalculated = accumulator.snapshot(true);
+			snapshots.get(2).complete(recalculated);
+			invokeAndWait(() -> displayed[1] = published[0].correlations);
+			Assertions.assertSame(recalculated, displayed[1]);
+
+			accumulator.add(new double[][] { { 5, 10, 1 } });
+			invokeAndWait(fire);
+			invokeAndWait(() -> timer[0].stop());
+			snapshots.get(3).complete(accumulator.snapshot(true));
+			invokeAndWait(() -> Assertions.assertSame(displayed[1], published[0].correlations,
+					"Stopped timer must not publish"));
+		}
+		finally
+		{
+			invokeAndWait(() -> Thread.currentThread().setUncaughtExceptionHandler(handler[0]));
+		}
+	}
+
+	@Test
+	void sampledCorrelations() throws InterruptedException, InvocationTargetException, ExecutionException,
+			TimeoutException
+	{
+		int[] sample = SampledCorrelations.sample(1000, 100, new Random(1));
+		Assertions.assertEquals(100, sample.length);
+		Assertions.assertEquals(100, Arrays.stream(sample).distinct().count());
+		Assertions.assertTrue(Arrays.stream(sample).allMatch(row -> row >= 0 && row < 1000));
+		Assertions.assertEquals(3, SampledCorrelations.sample(3, 100, new Random(1)).length);
+
+		double[][] columns = new double[2][1000];
+		Random random = new Random(2);
+		for (int r = 0; r < 1000; r++)
+		{
+			columns[0][r] = random.nextGaussian();
+			columns[1][r] = columns[0][r] + random.nextGaussian();
+		}
+		SampledCorrelations correlations = SampledCorrelations.calculate(columns, 100, random, false);
+		Assertions.assertEquals(100, correlations.getSampleSize());
+		double width = correlations.getConfidenceWidth(1, 0);
+		Assertions.assertTrue(width > 0 && width < 0.5);
+		Assertions.assertTrue(correlations.getConfidenceWidth(1, 0) > correlations.getConfidenceWidth(1, 1));
+		Assertions.assertTrue(Double.isNaN(PearsonCalculator.calculate(columns, false).getConfidenceWidth(1, 0)));
+
+		// the same rows streamed in batches
+		List<double[][]> batches = new ArrayList<>();
+		for (int r = 0; r < 1000; r += 64)
+		{
+			double[][] rows = new double[Math.min(64, 1000 - r)][];
+			for (int k = 0; k < rows.length; k++)
+			{
+				rows[k] = new double[] { columns[0][r + k], columns[1][r + k] };
+			}
+			batches.add(rows);
+		}
+		SampledCorrelations streamed = SampledCorrelations.calculate(batches.iterator(), 2, 100, random, false);
+		Assertions.assertEquals(100, streamed.getSampleSize());
+		Assertions.assertTrue(streamed.getConfidenceWidth(1, 0) > 0 && streamed.getConfidenceWidth(1, 0) < 0.5);
+
+		PackedCorrelations exact = PearsonCalculator.calculate(columns, false);
+		SampledCorrelations all = SampledCorrelations.calculate(batches.iterator(), 2, 5000, random, false);
+		Assertions.assertEquals(1000, all.getSampleSize(), "All rows are used if there are not more of them");
+		Assertions.assertEquals(exact.getCorrelation(1, 0), all.getCorrelation(1, 0), 1e-12);
+
+		CorrelationMatrix[] sampledMatrix = new CorrelationMatrix[1];
+		List<CompletableFuture<PackedCorrelations>> refined = new ArrayList<>();
+		invokeAndWait(() -> {
+			sampledMatrix[0] = new CorrelationMatrix(Arrays.asList(RowType.NUMERIC, RowType.NUMERIC),
+					Arrays.asList("A", "B"), streamed);
+			refined.add(streamed.refine(sampledMatrix[0], batches.iterator(), false));
+		});
+		PackedCorrelations accumulated = refined.get(0).get(10, TimeUnit.SECONDS);
+		Assertions.assertEquals(exact.getCorrelation(1, 0), accumulated.getCorrelation(1, 0), 1e-12);
+		invokeAndWait(() -> Assertions.assertSame(accumulated, sampledMatrix[0].correlations,
+				"Refined correlations are displayed"));
+	}
+
+	@Test
+	void anovaCalculator()
+	{
+		double[][] numeric = new double[][] { { 1, 1, 5, 5, Double.NaN }, { 2, 2, 2, 2, 9 }, { 3, 3, 3, 3, 3 } };
+		NominalColumn[] nominal = new NominalColumn[] {
+				NominalColumn.encode(Arrays.asList("a", "a", "b", "b", "c")) };
+		PackedCorrelations result = new PackedCorrelations(4, false);
+		AnovaCalculator.calculate(numeric, new int[] { 0, 1, 2 }, nominal, new int[] { 3 }, result, null);
+
+		Assertions.assertEquals(1, result.getCorrelationSqr(0, 3), 1e-12, "NaN values are skipped");
+		Assertions.assertEquals(1, result.getCorrelationSqr(3, 1), 1e-12);
+		Assertions.assertTrue(Double.isNaN(result.getCorrelationSqr(2, 3)), "Constant column has no variance");
+
+		numeric[1] = new double[] { 1, 2, 1, 2, 1.5 };
+		AnovaCalculator.calculate(numeric, new int[] { 0, 1, 2 }, nominal, new int[] { 3 }, result, null);
+		Assertions.assertEquals(0, result.getCorrelationSqr(1, 3), 1e-12);
+
+		// the same levels with huge cardinality are accumulated in rows sorted by level
+		numeric[1] = new double[] { 1, 2, 4, 2, 7 };
+		AnovaCalculator.calculate(numeric, new int[] { 0, 1, 2 }, nominal, new int[] { 3 }, result, null);
+		double denseValue = result.getCorrelationSqr(1, 3);
+		NominalColumn[] sparseNominal = new NominalColumn[] {
+				new NominalColumn(new int[] { 1 << 24, 1 << 24, 5, 5, 7 }, 1 << 25) };
+		AnovaCalculator.calculate(numeric, new int[] { 0, 1, 2 }, sparseNominal, new int[] { 3 }, result, null);
+		Assertions.assertEquals(denseValue, result.getCorrelationSqr(1, 3), 1e-12);
+		Assertions.assertEquals(1, result.getCorrelationSqr(0, 3), 1e-12, "NaN values are skipped");
+		Assertions.assertTrue(Double.isNaN(result.getCorrelationSqr(2, 3)), "Constant column has no variance");
+	}
+
+	@Test
+	void valuesPyramid()
+	{
+		ValuesPyramid pyramid = new ValuesPyramid(matrix.correlations, null);
+		Assertions.assertEquals(0, pyramid.getLevel(1.5), "Cells larger than a half of pixel are not aggregated");
+		Assertions.assertEquals(1, pyramid.getLevel(2));
+		Assertions.assertEquals(3, pyramid.getLevel(1000), "The coarsest level has single block");
+
+		// block (0, 1) of level 1 contains cells (0, 2), (0, 3), (1, 2) and (1, 3), one of them is NaN
+		double maximum = Double.NaN;
+		double sum = 0;
+		int count = 0;
+		for (int i = 0; i < 2; i++)
+		{
+			for (int j = 2; j < 4; j++)
+			{
+				double value = matrix.getValue(i, j);
+				if (!Double.isNaN(value))
+				{
+					maximum = Double.isNaN(maximum) || Math.abs(value) > Math.abs(maximum) ? value : maximum;
+					sum += value;
+					count++;
+				}
+			}
+		}
+		Assertions.assertEquals(3, count);
+		Assertions.assertEquals(maximum, pyramid.getValue(1, 0, 2, CellsAggregation.MAXIMUM_ABSOLUTE), 1e-6);
+		Assertions.assertEquals(sum / count, pyramid.getValue(1, 1, 3, CellsAggregation.MEAN), 1e-6);
+		Assertions.assertEquals(pyramid.getValue(3, 0, 1, CellsAggregation.MAXIMUM_ABSOLUTE),
+				pyramid.getValue(3, 4, 5, CellsAggregation.MAXIMUM_ABSOLUTE), "Single block covers all cells");
+	}
+
+	@Test
+	void presentationChanges() throws InterruptedException, InvocationTargetException
+	{
+		List<Consumer<CorrelationMatrix>> setters = Arrays.asList(m -> m.setPositiveColor(Color.GREEN),
+				m -> m.setNegativeColor(Color.ORANGE), m -> m.setBackground(Color.YELLOW),
+				m -> m.setLabelsColor(Color.RED), m -> m.setGridLinesColor(Color.BLUE),
+				m -> m.setEllipseStrokeColor(Color.MAGENTA));
+		invokeAndWait(() -> {
+			// test data has only weak negative correlations, which are painted with background color
+			PackedCorrelations source = randomCorrelations(20, 1);
+			for (int k = 0; k < setters.size(); k++)
+			{
+				CorrelationMatrix changedMatrix = createMatrix(source, 1200, 800, m -> {
+				});
+				int[] painted = pixels(paint(changedMatrix.grid));
+				setters.get(k).accept(changedMatrix);
+				int[] repainted = pixels(paint(changedMatrix.grid));
+				Assertions.assertFalse(Arrays.equals(painted, repainted), "Setter " + k + " must change cached image");
+				Assertions.assertArrayEquals(pixels(paint(createMatrix(source, 1200, 800, setters.get(k)).grid)),
+						repainted, "Setter " + k + " must give the same image as a new matrix");
+			}
+
+			// aggregation is visible only if cells are smaller than a pixel
+			PackedCorrelations aggregatedSource = randomCorrelations(1000, 1);
+			CorrelationMatrix aggregatedMatrix = createMatrix(aggregatedSource, 400, 300, m -> {
+			});
+			int[] painted = pixels(paint(aggregatedMatrix.grid));
+			aggregatedMatrix.setCellsAggregation(CellsAggregation.MEAN);
+			int[] repainted = pixels(paint(aggregatedMatrix.grid));
+			Assertions.assertFalse(Arrays.equals(painted, repainted), "Aggregation must change cached image");
+			Assertions.assertArrayEquals(pixels(paint(createMatrix(aggregatedSource, 400, 300,
+					m -> m.setCellsAggregation(CellsAggregation.MEAN)).grid)), repainted);
+		});
+	}
+
+	@Test
+	void clippedPainting() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			for (int compactCellSize : new int[] { 16, 1000 })
+			{
+				Consumer<CorrelationMatrix> setup = m -> m.setCompactCellSize(compactCellSize);
+				BufferedImage full = paint(createMatrix(setup).grid);
+
+				// grid without rendered image paints only the clip directly
+				CorrelationMatrixGrid clippedGrid = createMatrix(setup).grid;
+				BufferedImage clipped = new BufferedImage(full.getWidth(), full.getHeight(),
+						BufferedImage.TYPE_INT_ARGB);
+				Rectangle region = new Rectangle(full.getWidth() / 8, full.getHeight() / 4, full.getWidth() / 2,
+						full.getHeight() / 3);
+				Graphics2D g2d = clipped.createGraphics();
+				g2d.clip(region);
+				clippedGrid.paint(g2d);
+				g2d.dispose();
+
+				Assertions.assertArrayEquals(
+						full.getRGB(region.x, region.y, region.width, region.height, null, 0, region.width),
+						clipped.getRGB(region.x, region.y, region.width, region.height, null, 0, region.width),
+						"Clipped painting must match full painting, compact cell size " + compactCellSize);
+				Assertions.assertEquals(0, clipped.getRGB(region.x - 1, region.y - 1), "Pixels out of clip are kept");
+			}
+		});
+	}
+
+	@Test
+	void cellsRaster() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			PackedCorrelations source = randomCorrelations(20, 2);
+			CorrelationMatrixGrid rasterGrid = createMatrix(source, 600, 400, m -> {
+			}).grid;
+			CellColors colors = ((CorrelationMatrix) rasterGrid.getParent()).cellColors;
+			Rectangle area = new Rectangle(0, 0, 3 + 20 * 7, 20 * 7);
+			BufferedImage raster = new CellsRaster(colors, source, 3, 7, 1).render(area);
+
+			// reference is compact cells painted with shape filling
+			BufferedImage reference = new BufferedImage(area.width, area.height, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g2d = reference.createGraphics();
+			for (int i = 0; i < 20; i++)
+			{
+				for (int j = i + 1; j < 20; j++)
+				{
+					Cell cell = new Cell();
+					cell.x = 3 + i * 7;
+					cell.y = j * 7;
+					cell.size = 7;
+					cell.compact = true;
+					cell.value = source.getValue(i, j);
+					if (!Double.isNaN(cell.value))
+					{
+						rasterGrid.paintCellShape(g2d, cell);
+					}
+				}
+			}
+			g2d.dispose();
+			Assertions.assertArrayEquals(pixels(reference), pixels(raster));
+		});
+	}
+
+	@Test
+	void parallelRendering() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			PackedCorrelations source = randomCorrelations(40, 3);
+			for (int compactCellSize : new int[] { 16, 1000 })
+			{
+				CorrelationMatrix serialMatrix = createMatrix(source, 1200, 800, m -> {
+					m.setRenderingParallelism(1);
+					m.setCompactCellSize(compactCellSize);
+				});
+				CorrelationMatrix parallelMatrix = createMatrix(source, 1200, 800, m -> {
+					m.setRenderingParallelism(4);
+					m.setCompactCellSize(compactCellSize);
+				});
+				Assertions.assertTrue(parallelMatrix.grid.getHeight() > 256, "Grid must be split into several tiles");
+				Assertions.assertArrayEquals(pixels(paint(serialMatrix.grid)), pixels(paint(parallelMatrix.grid)),
+						"Tiles rendered in parallel must match serial rendering, compact cell size " + compactCellSize);
+				parallelMatrix.releaseRenderingPool();
+			}
+		});
+	}
+
+	@Test
+	void ellipseSprites() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			CorrelationMatrixGrid spriteGrid = createMatrix(m -> {
+			}).grid;
+			EllipseSprites sprites = new EllipseSprites(20, 1, 2, spriteGrid::paintCellShape);
+			for (double value : new double[] { -1, -0.5, 0, 0.25, 1 })
+			{
+				Cell cell = new Cell();
+				cell.x = 10;
+				cell.y = 6;
+				cell.size = 20;
+				cell.value = value;
+				BufferedImage sprite = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB);
+				Graphics2D g2d = sprite.createGraphics();
+				sprites.paint(g2d, cell);
+				g2d.dispose();
+
+				BufferedImage shape = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB);
+				g2d = shape.createGraphics();
+				g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+				spriteGrid.paintCellShape(g2d, cell);
+				g2d.dispose();
+				Assertions.assertArrayEquals(pixels(shape), pixels(sprite), "Sprite must match ellipse of " + value);
+			}
+		});
+	}
+
+	@Test
+	void backgroundRendering() throws InterruptedException, InvocationTargetException
+	{
+		AtomicBoolean failing = new AtomicBoolean();
+		CorrelationSource source = new CorrelationSource()
+		{
+			@Override
+			public int length()
+			{
+				return matrix.length();
+			}
+
+			@Override
+			public double getCorrelation(int i, int j)
+			{
+				return matrix.correlations.getCorrelation(i, j);
+			}
+
+			@Override
+			public double getCorrelationSqr(int i, int j)
+			{
+				if (failing.get())
+				{
+					throw new IllegalStateException();
+				}
+				return matrix.correlations.getCorrelationSqr(i, j);
+			}
+		};
+		CorrelationMatrix[] matrices = new CorrelationMatrix[2];
+		int[][] expected = new int[2][];
+		invokeAndWait(() -> {
+			for (int k = 0; k < 2; k++)
+			{
+				matrices[k] = new CorrelationMatrix(matrix.getDataTypes(), matrix.getTitles(), source);
+				matrices[k].setRenderingParallelism(2);
+				matrices[k].setBackgroundRendering(k == 0);
+				matrices[k].setSize(600, 400);
+				matrices[k].grid.setSize(matrices[k].grid.getPreferredSize());
+			}
+			expected[0] = pixels(paint(matrices[1].grid));
+			matrices[1].grid.setSize(matrices[1].grid.getWidth() + 40, matrices[1].grid.getHeight());
+			expected[1] = pixels(paint(matrices[1].grid));
+
+			CorrelationMatrixGrid grid = matrices[0].grid;
+			Assertions.assertArrayEquals(expected[0], pixels(paint(grid)), "The first image is rendered immediately");
+			// rendering of another size is started, but is finished after size is restored
+			grid.setSize(grid.getWidth() + 40, grid.getHeight());
+			paint(grid);
+			grid.setSize(grid.getWidth() - 40, grid.getHeight());
+		});
+		awaitRendering(matrices[0]);
+		invokeAndWait(() -> {
+			CorrelationMatrixGrid grid = matrices[0].grid;
+			Assertions.assertArrayEquals(expected[0], pixels(paint(grid)), "Image of outdated size is not displayed");
+
+			failing.set(true);
+			grid.setSize(grid.getWidth() + 40, grid.getHeight());
+			paint(grid);
+		});
+		awaitRendering(matrices[0]);
+		invokeAndWait(() -> {
+			failing.set(false);
+			Assertions.assertArrayEquals(expected[1], pixels(paint(matrices[0].grid)),
+					"Failed background rendering is repeated in event dispatch thread");
+		});
+	}
+
+	@Test
+	void zoomTiles()
+	{
+		PackedCorrelations source = new PackedCorrelations(1000, false);
+		for (int i = 0; i < source.length(); i++)
+		{
+			source.setCorrelation(i, source.length() - 1, 0.5, 0.25);
+		}
+		int[] paintedCells = new int[1];
+		ZoomTiles[] zoomTiles = new ZoomTiles[1];
+		// each cell takes single tile, the first painted cell changes itself
+		zoomTiles[0] = new ZoomTiles(source, ZoomTiles.TILE_SIZE, 1, true, Color.WHITE, (g2d, cell) -> {
+			if (paintedCells[0]++ == 0)
+			{
+				zoomTiles[0].invalidate(0, 0, source.length(), source.length());
+			}
+		});
+		BufferedImage image = new BufferedImage(ZoomTiles.TILE_SIZE, ZoomTiles.TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g2d = image.createGraphics();
+		int last = source.length() - 1;
+
+		zoomTiles[0].paint(g2d, 0, last, 1, 0, 0, null);
+		int painted = paintedCells[0];
+		zoomTiles[0].paint(g2d, 0, last, 1, 0, 0, null);
+		Assertions.assertTrue(paintedCells[0] > painted, "Tile changed during rendering is not cached");
+		painted = paintedCells[0];
+		zoomTiles[0].paint(g2d, 0, last, 1, 0, 0, null);
+		Assertions.assertEquals(painted, paintedCells[0], "Tile is cached");
+		zoomTiles[0].invalidate(0, last, 1, last + 1);
+		zoomTiles[0].paint(g2d, 0, last, 1, 0, 0, null);
+		Assertions.assertTrue(paintedCells[0] > painted, "Changed tile is rendered again");
+
+		// filling memory budget, so the first tile is the least recently used one
+		long maxTiles = ZoomTiles.MEMORY_BUDGET / ((long) ZoomTiles.TILE_SIZE * ZoomTiles.TILE_SIZE * Integer.BYTES);
+		for (int i = 1; i <= maxTiles; i++)
+		{
+			zoomTiles[0].paint(g2d, i, last, 1, 0, 0, null);
+		}
+		painted = paintedCells[0];
+		zoomTiles[0].paint(g2d, 1, last, 1, 0, 0, null);
+		Assertions.assertEquals(painted, paintedCells[0], "Tile within memory budget is cached");
+		zoomTiles[0].paint(g2d, 0, last, 1, 0, 0, null);
+		Assertions.assertTrue(paintedCells[0] > painted, "Least recently used tile is dropped");
+		g2d.dispose();
+	}
+
+	@Test
+	void interactionRegions() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			CorrelationMatrix interactedMatrix = new CorrelationMatrix(matrix.getDataTypes(), matrix.getTitles(),
+					correlations, correlationsSqr);
+			CorrelationMatrixGrid interactedGrid = interactedMatrix.grid;
+			interactedMatrix.setSize(1200, 800);
+			interactedGrid.setSize(interactedGrid.getPreferredSize());
+			interactedGrid.highlightIndex = new CellIndex(1, 3);
+			interactedGrid.zoom = interactedGrid.createZoom(new CellIndex(0, 0));
+			BufferedImage image = paint(interactedGrid);
+
+			CellIndex previousHighlightIndex = interactedGrid.highlightIndex;
+			Zoom previousZoom = interactedGrid.zoom;
+			interactedGrid.highlightIndex = new CellIndex(2, 5);
+			interactedGrid.zoom = interactedGrid.createZoom(new CellIndex(5, 5));
+			Graphics2D g2d = image.createGraphics();
+			for (Rectangle region : interactedGrid.getInteractionRegions(previousHighlightIndex, previousZoom))
+			{
+				// transparent grid is painted over cleared region, like over its parent
+				Graphics2D regionGraphics = (Graphics2D) g2d.create();
+				regionGraphics.clip(region);
+				regionGraphics.setComposite(AlphaComposite.Clear);
+				regionGraphics.fill(region);
+				regionGraphics.setComposite(AlphaComposite.SrcOver);
+				interactedGrid.paint(regionGraphics);
+				regionGraphics.dispose();
+			}
+			g2d.dispose();
+			Assertions.assertArrayEquals(pixels(paint(interactedGrid)), pixels(image),
+					"Repaint of changed regions should match full repaint");
+		});
+	}
+
+	@Test
+	void toolTipText() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			double[][] tipCorrelations = Arrays.stream(correlations).map(double[]::clone).toArray(double[][]::new);
+			double[][] tipCorrelationsSqr = Arrays.stream(correlationsSqr).map(double[]::clone)
+					.toArray(double[][]::new);
+			CorrelationMatrix tipMatrix = new CorrelationMatrix(matrix.getDataTypes(), matrix.getTitles(),
+					tipCorrelations, tipCorrelationsSqr);
+			tipMatrix.setSize(600, 400);
+			CorrelationMatrixGrid tipGrid = tipMatrix.grid;
+			tipGrid.setSize(tipGrid.getPreferredSize());
+
+			String text = tipGrid.getToolTipText(mouseEvent(tipGrid, 2, 4));
+			Assertions.assertEquals("Year\nStatus\nANOVA R\u00B2 = 0.0013", text);
+			Assertions.assertSame(text, tipGrid.getToolTipText(mouseEvent(tipGrid, 2, 4)), "Text is cached");
+			Assertions.assertTrue(tipGrid.getToolTipText(mouseEvent(tipGrid, 0, 2)).startsWith("Duration"),
+					"Text is created for another cell");
+
+			tipMatrix.updateCell(2, 4, 0.5, 0.25);
+			Assertions.assertEquals("Year\nStatus\nANOVA R\u00B2 = 0.2500",
+					tipGrid.getToolTipText(mouseEvent(tipGrid, 2, 4)), "Text is created again after cell update");
+
+			List<String> titles = new ArrayList<>(matrix.getTitles());
+			titles.set(2, "Period");
+			tipMatrix.setData(matrix.getDataTypes(), titles, tipMatrix.correlations);
+			Assertions.assertEquals("Period\nStatus\nANOVA R\u00B2 = 0.2500",
+					tipGrid.getToolTipText(mouseEvent(tipGrid, 2, 4)), "Text is created again after data change");
+
+			// hovering title of the fourth row
+			double cellSize = tipGrid.createCell(0, 0).size;
+			int y = tipMatrix.gridBorderWidth + (int) (3.5 * cellSize);
+			MouseEvent titleEvent = new MouseEvent(tipGrid, MouseEvent.MOUSE_MOVED, 0, 0, tipMatrix.gridBorderWidth + 2, y,
+					0, false);
+			Assertions.assertEquals("Amount", tipGrid.getToolTipText(titleEvent));
+
+			// line breaks inside titles do not split them
+			titles.set(4, "Contract\nstatus");
+			tipMatrix.setData(matrix.getDataTypes(), titles, tipMatrix.correlations);
+			text = tipGrid.getToolTipText(mouseEvent(tipGrid, 2, 4));
+			GridToolTip toolTip = (GridToolTip) tipGrid.createToolTip();
+			toolTip.setTipText(text);
+			Assertions.assertArrayEquals(new String[] { "Period", "Contract\nstatus", "ANOVA R\u00B2 = 0.2500" },
+					toolTip.lines);
+		});
+	}
+
+	@Test
+	void toolTip() throws InterruptedException, InvocationTargetException
+	{
+		invokeAndWait(() -> {
+			GridToolTip toolTip = (GridToolTip) grid.createToolTip();
+			toolTip.setTipText("Score");
+			Dimension singleLine = toolTip.getPreferredSize();
+			toolTip.setTipLines("Score\nYear", new String[] { "Score", "Year" });
+			Dimension twoLines = toolTip.getPreferredSize();
+			Assertions.assertEquals(singleLine.width, twoLines.width, "Width is defined by the longest line");
+			Assertions.assertEquals(toolTip.getFontMetrics(toolTip.getFont()).getHeight(),
+					twoLines.height - singleLine.height);
+
+			toolTip.setTipText("Score\nYear");
+			Assertions.assertArrayEquals(new String[] { "Score", "Year" }, toolTip.lines, "Same text keeps lines");
+			toolTip.setTipText("Score\nAmount");
+			Assertions.assertArrayEquals(new String[] { "Score\nAmount" }, toolTip.lines,
+					"Text without lines is not split");
+		});
+	}
+
 	@Test
 	void setTemperatureScale()
 	{
@@ -227,4 +1041,135 @@ class CorrelationMatrixTest
 				matrix.getTemperatureScaleGradientWidth() + TemperatureScale.LABELS_MARGIN < preferredSize.width,
 				"Temperature scale at least includes gradient and margins");
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Paints given grid with its current size into new image.
+	 *
+	 * @param grid grid to paint
+	 * @return painted image
+	 */
+	private static BufferedImage paint(CorrelationMatrixGrid grid)
+	{
+		BufferedImage image = new BufferedImage(grid.getWidth(), grid.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2d = image.createGraphics();
+		grid.paint(g2d);
+		g2d.dispose();
+		return image;
+	}
+
+	/**
+	 * @param image image to read
+	 * @return pixels of given image
+	 */
+	private static int[] pixels(BufferedImage image)
+	{
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
+	/**
+	 * Waits until background rendering of given matrix is finished and its result is handled in event dispatch thread.
+	 *
+	 * @param matrix matrix to wait for
+	 */
+	private static void awaitRendering(CorrelationMatrix matrix) throws InterruptedException, InvocationTargetException
+	{
+		matrix.getRenderingPool().awaitQuiescence(10, TimeUnit.SECONDS);
+		invokeAndWait(() -> {
+		});
+	}
+
+	/**
+	 * Creates mouse event in the center of given data cell of given grid.
+	 *
+	 * @param grid grid with size
+	 * @param i column index
+	 * @param j row index
+	 * @return mouse moved event
+	 */
+	private static MouseEvent mouseEvent(CorrelationMatrixGrid grid, int i, int j)
+	{
+		CorrelationMatrix matrix = (CorrelationMatrix) grid.getParent();
+		double cellSize = grid.createCell(i, j).size;
+		int x = (int) (grid.getWidth() - matrix.gridBorderWidth - (matrix.length() - i - 0.5) * cellSize);
+		int y = (int) (matrix.gridBorderWidth + (j + 0.5) * cellSize);
+		return new MouseEvent(grid, MouseEvent.MOUSE_MOVED, 0, 0, x, y, 0, false);
+	}
+
+	/**
+	 * Creates matrix of test data, which is laid out for {@code 1200x800} size and is rendered in event dispatch
+	 * thread.
+	 *
+	 * @param setup changes properties of matrix before it's laid out
+	 * @return laid out matrix
+	 */
+	private static CorrelationMatrix createMatrix(Consumer<CorrelationMatrix> setup)
+	{
+		CorrelationMatrix result = new CorrelationMatrix(matrix.getDataTypes(), matrix.getTitles(), correlations,
+				correlationsSqr);
+		return layOut(result, 1200, 800, setup);
+	}
+
+	/**
+	 * Creates matrix of numeric rows, which is laid out for given size and is rendered in event dispatch thread.
+	 *
+	 * @param source displayed correlations
+	 * @param width matrix width
+	 * @param height matrix height
+	 * @param setup changes properties of matrix before it's laid out
+	 * @return laid out matrix
+	 */
+	private static CorrelationMatrix createMatrix(CorrelationSource source, int width, int height,
+			Consumer<CorrelationMatrix> setup)
+	{
+		List<String> titles = new ArrayList<>();
+		for (int k = 0; k < source.length(); k++)
+		{
+			titles.add("Row " + k);
+		}
+		CorrelationMatrix result = new CorrelationMatrix(Collections.nCopies(source.length(), RowType.NUMERIC), titles,
+				source);
+		return layOut(result, width, height, setup);
+	}
+
+	/**
+	 * Lays out given matrix for given size, disabling background rendering.
+	 *
+	 * @param matrix matrix to lay out
+	 * @param width matrix width
+	 * @param height matrix height
+	 * @param setup changes properties of matrix before it's laid out
+	 * @return given matrix
+	 */
+	private static CorrelationMatrix layOut(CorrelationMatrix matrix, int width, int height,
+			Consumer<CorrelationMatrix> setup)
+	{
+		matrix.setBackgroundRendering(false);
+		setup.accept(matrix);
+		matrix.setSize(width, height);
+		matrix.grid.setSize(matrix.grid.getPreferredSize());
+		return matrix;
+	}
+
+	/**
+	 * Creates symmetric correlations with random values, every tenth value is {@code NaN}.
+	 *
+	 * @param length amount of rows
+	 * @param seed random seed
+	 * @return random correlations
+	 */
+	private static PackedCorrelations randomCorrelations(int length, long seed)
+	{
+		Random random = new Random(seed);
+		PackedCorrelations result = new PackedCorrelations(length, false);
+		for (int i = 0; i < length; i++)
+		{
+			for (int j = 0; j < i; j++)
+			{
+				double value = random.nextInt(10) == 0 ? NaN : random.nextDouble() * 2 - 1;
+				result.setCorrelation(i, j, value, value * value);
+			}
+			result.setCorrelation(i, i, 1, 1);
+		}
+		return result;
+	}
+}